@@ -0,0 +1,54 @@
+package com.morro.cdsl.compiler;
+
+import com.morro.cdsl.interpreter.ProblemInterpreter;
+import com.morro.cdsl.parser.CDSLParser;
+import com.morro.cdsl.parser.Program;
+import com.morro.cdsl.spec.ProblemSpec;
+import com.morro.cdsl.tokenizer.CDSLTokenizer;
+import com.morro.cdsl.tokenizer.Token;
+
+import java.util.List;
+
+/**
+ * Результат полной компиляции текста: токены, разобранная программа и спецификации задач.
+ * Объект неизменяем и разделяется между потоками без копирования.
+ */
+public final class CompiledProblem {
+    private final List<Token> tokens;
+    private final Program program;
+    private final List<ProblemSpec> specs;
+
+    private CompiledProblem(List<Token> tokens, Program program, List<ProblemSpec> specs) {
+        this.tokens = tokens;
+        this.program = program;
+        this.specs = specs;
+    }
+
+    public static CompiledProblem compile(CharSequence source) {
+        List<Token> tokens = List.copyOf(CDSLTokenizer.tokenize(source.toString()));
+        Program program = new CDSLParser(tokens).parse();
+        List<ProblemSpec> specs = ProblemInterpreter.interpretTasks(program).toList();
+        return new CompiledProblem(tokens, program, specs);
+    }
+
+    public List<Token> tokens() {
+        return tokens;
+    }
+
+    public Program program() {
+        return program;
+    }
+
+    public int taskCount() {
+        return specs.size();
+    }
+
+    // Спецификация задачи с номером task (с нуля)
+    public ProblemSpec spec(int task) {
+        return specs.get(task);
+    }
+
+    public List<ProblemSpec> specs() {
+        return specs;
+    }
+}
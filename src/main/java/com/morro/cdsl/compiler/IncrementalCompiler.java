@@ -0,0 +1,213 @@
+package com.morro.cdsl.compiler;
+
+import com.morro.cdsl.interpreter.ProblemInterpreter;
+import com.morro.cdsl.parser.CDSLParser;
+import com.morro.cdsl.parser.Declaration;
+import com.morro.cdsl.parser.Diagnostic;
+import com.morro.cdsl.parser.Program;
+import com.morro.cdsl.spec.ProblemSpec;
+import com.morro.cdsl.tokenizer.CDSLTokenizer;
+import com.morro.cdsl.tokenizer.Token;
+import com.morro.cdsl.tokenizer.TokenType;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Инкрементальная компиляция редактируемого документа. Токены хранятся по строкам,
+ * документ делится на блоки по строкам, начинающимся с TASK. При обновлении
+ * перетокенизируются только изменённые строки, а разбор и интерпретация повторяются
+ * только для блоков, в которых изменились токены или состав строк.
+ */
+public class IncrementalCompiler {
+    private final List<Line> lines = new ArrayList<>();
+    private int[] blockStarts = new int[0];
+    private int[] tokenOffsets = new int[1];
+
+    private static final class Line {
+        List<Token> tokens = List.of();
+        boolean dirty = true;
+        boolean changed = true;
+        boolean startsTask;
+        // Кэш блока, если строка его открывает
+        Block block;
+    }
+
+    // firstLine — индекс первой строки на момент разбора, по нему сдвигаются номера строк в сообщениях
+    private record Block(int firstLine, int lineCount, Program program, ProblemSpec spec) {
+    }
+
+    // Строки [index, index + removed) заменены added новыми строками
+    public void linesReplaced(int index, int removed, int added) {
+        lines.subList(index, index + removed).clear();
+        List<Line> inserted = new ArrayList<>(added);
+        for (int i = 0; i < added; i++) {
+            inserted.add(new Line());
+        }
+        lines.addAll(index, inserted);
+    }
+
+    public void lineChanged(int index) {
+        lines.get(index).dirty = true;
+    }
+
+    public void update(IntFunction<CharSequence> lineText) {
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.dirty) {
+                relex(line, lineText.apply(i), i + 1);
+            }
+        }
+
+        layoutBlocks();
+
+        for (int b = 0; b < blockStarts.length; b++) {
+            int start = blockStarts[b];
+            int end = blockEnd(b);
+            Line header = lines.get(start);
+            if (header.block == null || header.block.lineCount() != end - start || anyChanged(start, end)) {
+                header.block = compileBlock(start, end);
+            }
+        }
+
+        for (Line line : lines) {
+            line.changed = false;
+        }
+
+        tokenOffsets = new int[lines.size() + 1];
+        for (int i = 0; i < lines.size(); i++) {
+            tokenOffsets[i + 1] = tokenOffsets[i] + lines.get(i).tokens.size();
+        }
+    }
+
+    // Токены всего документа без EOF; представление действительно до следующего update
+    public List<Token> tokens() {
+        return new AbstractList<>() {
+            @Override
+            public Token get(int index) {
+                int line = Arrays.binarySearch(tokenOffsets, index);
+                // Среди строк с одинаковым смещением нужна последняя — первая непустая
+                line = line >= 0 ? lastWithOffset(line) : -line - 2;
+                return tokenAt(line, index - tokenOffsets[line]);
+            }
+
+            @Override
+            public int size() {
+                return tokenOffsets[tokenOffsets.length - 1];
+            }
+        };
+    }
+
+    public Program program() {
+        List<Declaration> declarations = new ArrayList<>();
+        for (int start : blockStarts) {
+            declarations.addAll(lines.get(start).block.program().declarations());
+        }
+        return new Program(declarations, diagnostics());
+    }
+
+    // Сообщения всех блоков с номерами строк текущего документа
+    public List<Diagnostic> diagnostics() {
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        for (int start : blockStarts) {
+            Block block = lines.get(start).block;
+            for (Diagnostic diagnostic : block.program().diagnostics()) {
+                diagnostics.add(diagnostic.moved(start - block.firstLine()));
+            }
+        }
+        return diagnostics;
+    }
+
+    public List<ProblemSpec> specs() {
+        List<ProblemSpec> specs = new ArrayList<>(blockStarts.length);
+        for (int start : blockStarts) {
+            specs.add(lines.get(start).block.spec());
+        }
+        return specs;
+    }
+
+    // Спецификация блока, в который входит строка (с нуля)
+    public ProblemSpec specAt(int line) {
+        if (blockStarts.length == 0) {
+            return null;
+        }
+        int block = Arrays.binarySearch(blockStarts, line);
+        block = block >= 0 ? block : Math.max(0, -block - 2);
+        return lines.get(blockStarts[block]).block.spec();
+    }
+
+    private void relex(Line line, CharSequence text, int lineNumber) {
+        List<Token> tokens = CDSLTokenizer.tokenizeLine(text, lineNumber);
+        // Правка пробелов не меняет ни типов, ни значений — блок можно не разбирать заново
+        if (!sameTokens(line.tokens, tokens)) {
+            line.changed = true;
+        }
+        line.tokens = tokens;
+        line.startsTask = !tokens.isEmpty() && tokens.get(0).getType() == TokenType.TASK;
+        line.dirty = false;
+    }
+
+    private void layoutBlocks() {
+        int count = 0;
+        int[] starts = new int[Math.max(1, lines.size())];
+        for (int i = 0; i < lines.size(); i++) {
+            if (i == 0 || lines.get(i).startsTask) {
+                starts[count++] = i;
+            }
+        }
+        blockStarts = Arrays.copyOf(starts, count);
+    }
+
+    private int blockEnd(int block) {
+        return block + 1 < blockStarts.length ? blockStarts[block + 1] : lines.size();
+    }
+
+    private boolean anyChanged(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (lines.get(i).changed) return true;
+        }
+        return false;
+    }
+
+    private Block compileBlock(int start, int end) {
+        List<Token> tokens = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            for (int t = 0; t < lines.get(i).tokens.size(); t++) {
+                tokens.add(tokenAt(i, t));
+            }
+        }
+
+        Program program = new CDSLParser(tokens).parse();
+        ProblemSpec spec = ProblemInterpreter.interpret(program);
+        return new Block(start, end - start, program, spec);
+    }
+
+    private Token tokenAt(int line, int index) {
+        Token token = lines.get(line).tokens.get(index);
+        // Строки сдвигаются при вставке выше — номер строки восстанавливаем по месту
+        if (token.getLine() == line + 1) {
+            return token;
+        }
+        return new Token(token.getType(), token.getValue(), line + 1, token.getColumn());
+    }
+
+    private int lastWithOffset(int line) {
+        while (line + 1 < tokenOffsets.length && tokenOffsets[line + 1] == tokenOffsets[line]) {
+            line++;
+        }
+        return line;
+    }
+
+    private static boolean sameTokens(List<Token> a, List<Token> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            Token x = a.get(i);
+            Token y = b.get(i);
+            if (x.getType() != y.getType() || !x.getValue().equals(y.getValue())) return false;
+        }
+        return true;
+    }
+}
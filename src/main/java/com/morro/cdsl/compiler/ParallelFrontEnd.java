@@ -0,0 +1,172 @@
+package com.morro.cdsl.compiler;
+
+import com.morro.cdsl.parser.CDSLParser;
+import com.morro.cdsl.parser.Declaration;
+import com.morro.cdsl.parser.Diagnostic;
+import com.morro.cdsl.parser.Program;
+import com.morro.cdsl.tokenizer.CDSLTokenizer;
+import com.morro.cdsl.tokenizer.Token;
+import com.morro.cdsl.tokenizer.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+/**
+ * Параллельная токенизация и разбор банков задач. Вход разрезается по строкам,
+ * начинающимся с TASK, соседние блоки группируются в куски сопоставимого размера,
+ * куски обрабатываются в ForkJoinPool, а результаты склеиваются в исходном порядке
+ * с правильными номерами строк.
+ */
+public final class ParallelFrontEnd {
+    // Меньше этого куски не режем: накладные расходы на задачу перевесят выигрыш
+    private static final int MIN_CHUNK_LENGTH = 16 * 1024;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private ParallelFrontEnd() {
+    }
+
+    public static List<Token> tokenize(CharSequence input) {
+        return tokenize(input, ForkJoinPool.commonPool());
+    }
+
+    public static List<Token> tokenize(CharSequence input, ForkJoinPool pool) {
+        Chunks chunks = split(input, pool.getParallelism());
+        @SuppressWarnings("unchecked")
+        List<Token>[] parts = run(pool, chunks.count(), List[]::new, chunk ->
+                CDSLTokenizer.tokenize(input, chunks.start(chunk), chunks.end(chunk), chunks.firstLine(chunk)));
+
+        int size = 0;
+        for (List<Token> part : parts) {
+            size += part.size();
+        }
+        List<Token> tokens = new ArrayList<>(size + 1);
+        for (List<Token> part : parts) {
+            tokens.addAll(part);
+        }
+
+        if (!tokens.isEmpty()) {
+            tokens.add(new Token(TokenType.EOF, "", chunks.lastLine() + 1, 1));
+        }
+        return tokens;
+    }
+
+    public static Program parse(CharSequence input) {
+        return parse(input, ForkJoinPool.commonPool());
+    }
+
+    public static Program parse(CharSequence input, ForkJoinPool pool) {
+        Chunks chunks = split(input, pool.getParallelism());
+        Program[] parts = run(pool, chunks.count(), Program[]::new, chunk -> new CDSLParser(
+                CDSLTokenizer.tokenize(input, chunks.start(chunk), chunks.end(chunk), chunks.firstLine(chunk))).parse());
+
+        List<Declaration> declarations = new ArrayList<>();
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        for (Program part : parts) {
+            declarations.addAll(part.declarations());
+            diagnostics.addAll(part.diagnostics());
+        }
+        return new Program(declarations, diagnostics);
+    }
+
+    private static <R> R[] run(ForkJoinPool pool, int count, IntFunction<R[]> array, IntFunction<R> work) {
+        R[] results = array.apply(count);
+        pool.invoke(new ChunkAction<>(results, work, 0, count));
+        return results;
+    }
+
+    private static final class ChunkAction<R> extends RecursiveAction {
+        private final R[] results;
+        private final IntFunction<R> work;
+        private final int from;
+        private final int to;
+
+        ChunkAction(R[] results, IntFunction<R> work, int from, int to) {
+            this.results = results;
+            this.work = work;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    results[from] = work.apply(from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkAction<>(results, work, from, mid), new ChunkAction<>(results, work, mid, to));
+        }
+    }
+
+    // Границы кусков: смещение начала и номер первой строки; последний элемент — конец входа
+    private record Chunks(int[] offsets, int[] lines, int lastLine) {
+        int count() { return offsets.length - 1; }
+        int start(int chunk) { return offsets[chunk]; }
+        int end(int chunk) { return offsets[chunk + 1]; }
+        int firstLine(int chunk) { return lines[chunk]; }
+    }
+
+    // Один последовательный проход: ищем строки TASK и считаем номера строк
+    private static Chunks split(CharSequence input, int parallelism) {
+        int length = input.length();
+        int target = Math.max(MIN_CHUNK_LENGTH, length / Math.max(1, parallelism * CHUNKS_PER_WORKER));
+
+        int[] offsets = new int[16];
+        int[] lines = new int[16];
+        int count = 1;
+        offsets[0] = 0;
+        lines[0] = 1;
+
+        int line = 1;
+        int lastLine = 0;
+        int pos = 0;
+        while (pos < length) {
+            if (pos - offsets[count - 1] >= target && startsWithTask(input, pos, length)) {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                    lines = Arrays.copyOf(lines, count * 2);
+                }
+                offsets[count] = pos;
+                lines[count] = line;
+                count++;
+            }
+
+            int lineEnd = pos;
+            while (lineEnd < length && input.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd > pos) {
+                lastLine = line;
+            }
+            pos = lineEnd + 1;
+            line++;
+        }
+
+        offsets = Arrays.copyOf(offsets, count + 1);
+        offsets[count] = length;
+        return new Chunks(offsets, Arrays.copyOf(lines, count), lastLine);
+    }
+
+    private static boolean startsWithTask(CharSequence input, int pos, int length) {
+        while (pos < length && input.charAt(pos) <= ' ' && input.charAt(pos) != '\n') {
+            pos++;
+        }
+        String keyword = "TASK";
+        if (pos + keyword.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toUpperCase(input.charAt(pos + i)) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        int next = pos + keyword.length();
+        return next == length || !(Character.isLetterOrDigit(input.charAt(next)) || input.charAt(next) == '_');
+    }
+}
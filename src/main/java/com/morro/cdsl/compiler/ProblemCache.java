@@ -0,0 +1,165 @@
+package com.morro.cdsl.compiler;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограниченный кэш скомпилированных задач с адресацией по содержимому. Ключ — 128-битный
+ * хэш нормализованного текста: регистр не учитывается, пробельные последовательности вне
+ * строк в кавычках схлопываются, пустые строки отбрасываются. Такие тексты дают одинаковые
+ * токены и одинаковую программу, различаются лишь позиции — в записи остаются позиции текста,
+ * с которым она была создана.
+ *
+ * Вытеснение по давности использования (LRU) при превышении числа записей или суммарного
+ * веса; вес записи — число её токенов.
+ */
+public final class ProblemCache {
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<Key, CompiledProblem> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public record Stats(long hits, long misses, long evictions, int size, long weight) {
+    }
+
+    private record Key(long high, long low) {
+    }
+
+    public ProblemCache(int maxEntries, long maxWeight) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache limits must be positive: " + maxEntries + ", " + maxWeight);
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    // Компиляция идёт вне блокировки: одновременные промахи по одному тексту компилируют его
+    // независимо, в кэше остаётся первый результат
+    public CompiledProblem compile(CharSequence source) {
+        Key key = key(source);
+        synchronized (this) {
+            CompiledProblem cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        CompiledProblem compiled = CompiledProblem.compile(source);
+        synchronized (this) {
+            CompiledProblem existing = entries.putIfAbsent(key, compiled);
+            if (existing != null) {
+                return existing;
+            }
+            weight += weightOf(compiled);
+            evict();
+            return compiled;
+        }
+    }
+
+    public synchronized CompiledProblem getIfPresent(CharSequence source) {
+        CompiledProblem cached = entries.get(key(source));
+        if (cached != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return cached;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    // Самую свежую запись не вытесняем, даже если она одна тяжелее maxWeight
+    private void evict() {
+        Iterator<Map.Entry<Key, CompiledProblem>> eldest = entries.entrySet().iterator();
+        while (entries.size() > 1 && (entries.size() > maxEntries || weight > maxWeight)) {
+            weight -= weightOf(eldest.next().getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static long weightOf(CompiledProblem problem) {
+        return problem.tokens().size();
+    }
+
+    // Хэш считается по нормализованному тексту на лету, без построения нормализованной строки.
+    // Нормализация повторяет правила токенизатора: строки режутся по '\n' и обрезаются,
+    // строка в кавычках — только если на той же строке есть закрывающая кавычка.
+    private static Key key(CharSequence source) {
+        Hasher hasher = new Hasher();
+        int length = source.length();
+        int lineStart = 0;
+        while (lineStart <= length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && source.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+
+            int start = lineStart;
+            int end = lineEnd;
+            while (start < end && source.charAt(start) <= ' ') start++;
+            while (end > start && source.charAt(end - 1) <= ' ') end--;
+
+            if (start < end) {
+                if (hasher.started) {
+                    hasher.add('\n');
+                }
+                hashLine(source, start, end, hasher);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return new Key(hasher.fnv, hasher.polynomial);
+    }
+
+    private static void hashLine(CharSequence source, int start, int end, Hasher hasher) {
+        int pos = start;
+        while (pos < end) {
+            char c = source.charAt(pos);
+            if (Character.isWhitespace(c)) {
+                while (pos < end && Character.isWhitespace(source.charAt(pos))) pos++;
+                hasher.add(' ');
+                continue;
+            }
+            if (c == '"') {
+                int close = pos + 1;
+                while (close < end && source.charAt(close) != '"') close++;
+                if (close < end) {
+                    // Содержимое строки не схлопываем: пробелы внутри неё значимы
+                    for (; pos <= close; pos++) {
+                        hasher.add(Character.toUpperCase(source.charAt(pos)));
+                    }
+                    continue;
+                }
+            }
+            hasher.add(Character.toUpperCase(c));
+            pos++;
+        }
+    }
+
+    // Две независимые 64-битные функции: FNV-1a и полиномиальная с перемешиванием
+    private static final class Hasher {
+        long fnv = 0xcbf29ce484222325L;
+        long polynomial = 0x9E3779B97F4A7C15L;
+        boolean started;
+
+        void add(char c) {
+            fnv = (fnv ^ c) * 0x100000001b3L;
+            polynomial = (polynomial + c) * 0xff51afd7ed558ccdL;
+            polynomial ^= polynomial >>> 33;
+            started = true;
+        }
+    }
+}
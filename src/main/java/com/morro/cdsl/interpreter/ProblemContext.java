@@ -2,229 +2,128 @@ package com.morro.cdsl.interpreter;
 
 import com.morro.cdsl.model.Card;
 import com.morro.cdsl.model.ProblemType;
-
-import java.util.*;
-
-
-public class ProblemContext {
-    private ProblemType problemType;
-    private String taskName;
-    private String calculationType;
+import com.morro.cdsl.spec.BallsSpec;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.CardsSpec;
+import com.morro.cdsl.spec.ChessPiece;
+import com.morro.cdsl.spec.ChessSpec;
+import com.morro.cdsl.spec.DivisibilitySpec;
+import com.morro.cdsl.spec.EquationsSpec;
+import com.morro.cdsl.spec.NumbersSpec;
+import com.morro.cdsl.spec.ProblemSpec;
+import com.morro.cdsl.spec.RemaindersSpec;
+import com.morro.cdsl.spec.UntypedSpec;
+import com.morro.cdsl.spec.WordsSpec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Изменяемое состояние одной задачи на время интерпретации; наружу отдаётся только toSpec()
+final class ProblemContext {
+    ProblemType problemType;
+    String taskName;
+    Calculation calculation;
 
     // Параметры для карт
-    private String deckType;
-    private int deckSize;
-    private Card targetCard;
-    private List<Card> targetCards = new ArrayList<>();
-    private int drawCount;
-    private boolean withReplacement = false;
+    // Без DECK — полная стандартная колода, как и у DECK без параметров
+    String deckType = "STANDARD";
+    int deckSize = Card.DECK_SIZE;
+    int[] targetCards = new int[4];
+    int targetCount;
+    int handCategories;
+    boolean targetAtLeast;
+    int drawCount;
+    boolean withReplacement = false;
 
     // Параметры для слов
-    private String alphabet;
-    private int wordLength;
-    private boolean uniqueLetters = true;
-    private List<String> wordConditions = new ArrayList<>();
+    String alphabet;
+    int wordLength;
+    boolean uniqueLetters = true;
+    int wordConditions;
 
     // Параметры для шахмат
-    private int boardHeight = 8;
-    private int boardWidth = 8;
-    private Map<String, Integer> pieces = new HashMap<>();
-    private boolean attacking = false;
+    int boardHeight = 8;
+    int boardWidth = 8;
+    final int[] pieces = new int[ChessPiece.values().length];
+    boolean attacking = false;
 
     // Параметры для остатков
-    private String dividend;
-    private String divisor;
-    private String remainder;
+    String dividend;
+    int divisor;
+    int remainder;
 
     // Параметры для делимости
-    private int numberLength;
-    private List<String> transformations = new ArrayList<>();
-    private String divisibilityCondition;
+    int numberLength;
+    final List<String> transformations = new ArrayList<>();
+    DivisibilitySpec.Condition divisibilityCondition;
+    int factor;
 
-    // Параметры для шаров и урн
-    private Map<String, Integer> urnContents = new HashMap<>();
-    private boolean sequentialDraw = true;
-    private int ballDrawCount;
+    // Параметры для шаров и урн: порядок цветов — порядок объявления
+    final Map<String, Integer> urnContents = new LinkedHashMap<>();
+    final Map<String, Integer> ballTargets = new LinkedHashMap<>();
+    boolean sequentialDraw = true;
+    int ballDrawCount;
 
     // Параметры для уравнений
-    private int unknowns;
-    private List<Integer> coefficients = new ArrayList<>();
-    private int sum;
-    private String domain;
-    private List<String> constraints = new ArrayList<>();
+    int unknowns;
+    int[] coefficients = new int[0];
+    int sum;
+    String domain;
+    final List<String> constraints = new ArrayList<>();
 
     // Параметры для чисел
-    private int digits;
-    private boolean distinctDigits = false;
-    private boolean adjacentDifferent = false;
-    private String numberOrder;
-
-    private Map<String, Object> additionalParams = new HashMap<>();
-
-    // Геттеры и сеттеры для всех полей
-    public ProblemType getProblemType() { return problemType; }
-    public void setProblemType(ProblemType problemType) { this.problemType = problemType; }
-
-    public String getTaskName() { return taskName; }
-    public void setTaskName(String taskName) { this.taskName = taskName; }
-
-    public String getCalculationType() { return calculationType; }
-    public void setCalculationType(String calculationType) { this.calculationType = calculationType; }
-
-    public String getDeckType() { return deckType; }
-    public void setDeckType(String deckType) { this.deckType = deckType; }
-
-    public int getDeckSize() { return deckSize; }
-    public void setDeckSize(int deckSize) { this.deckSize = deckSize; }
-
-    public Card getTargetCard() { return targetCard; }
-    public void setTargetCard(Card targetCard) { this.targetCard = targetCard; }
-
-    public List<Card> getTargetCards() { return targetCards; }
-    public void setTargetCards(List<Card> targetCards) { this.targetCards = targetCards; }
-
-    public int getDrawCount() { return drawCount; }
-    public void setDrawCount(int drawCount) { this.drawCount = drawCount; }
-
-    public boolean isWithReplacement() { return withReplacement; }
-    public void setWithReplacement(boolean withReplacement) { this.withReplacement = withReplacement; }
-
-    public String getAlphabet() { return alphabet; }
-    public void setAlphabet(String alphabet) { this.alphabet = alphabet; }
-
-    public int getWordLength() { return wordLength; }
-    public void setWordLength(int wordLength) { this.wordLength = wordLength; }
-
-    public boolean isUniqueLetters() { return uniqueLetters; }
-    public void setUniqueLetters(boolean uniqueLetters) { this.uniqueLetters = uniqueLetters; }
-
-    public List<String> getWordConditions() { return wordConditions; }
-    public void setWordConditions(List<String> wordConditions) { this.wordConditions = wordConditions; }
-    public void addWordCondition(String condition) { this.wordConditions.add(condition); }
-
-    public int getBoardHeight() { return boardHeight; }
-    public void setBoardHeight(int boardHeight) { this.boardHeight = boardHeight; }
-
-    public int getBoardWidth() { return boardWidth; }
-    public void setBoardWidth(int boardWidth) { this.boardWidth = boardWidth; }
-
-    public Map<String, Integer> getPieces() { return pieces; }
-    public void setPieces(Map<String, Integer> pieces) { this.pieces = pieces; }
-
-    public boolean isAttacking() { return attacking; }
-    public void setAttacking(boolean attacking) { this.attacking = attacking; }
-
-    public String getDividend() { return dividend; }
-    public void setDividend(String dividend) { this.dividend = dividend; }
-
-    public String getDivisor() { return divisor; }
-    public void setDivisor(String divisor) { this.divisor = divisor; }
-
-    public String getRemainder() { return remainder; }
-    public void setRemainder(String remainder) { this.remainder = remainder; }
-
-    public int getNumberLength() { return numberLength; }
-    public void setNumberLength(int numberLength) { this.numberLength = numberLength; }
-
-    public List<String> getTransformations() { return transformations; }
-    public void setTransformations(List<String> transformations) { this.transformations = transformations; }
-
-    public String getDivisibilityCondition() { return divisibilityCondition; }
-    public void setDivisibilityCondition(String divisibilityCondition) { this.divisibilityCondition = divisibilityCondition; }
-
-    public Map<String, Integer> getUrnContents() { return urnContents; }
-    public void setUrnContents(Map<String, Integer> urnContents) { this.urnContents = urnContents; }
-
-    public boolean isSequentialDraw() { return sequentialDraw; }
-    public void setSequentialDraw(boolean sequentialDraw) { this.sequentialDraw = sequentialDraw; }
-
-    public int getBallDrawCount() { return ballDrawCount; }
-    public void setBallDrawCount(int ballDrawCount) { this.ballDrawCount = ballDrawCount; }
-
-    public int getUnknowns() { return unknowns; }
-    public void setUnknowns(int unknowns) { this.unknowns = unknowns; }
-
-    public List<Integer> getCoefficients() { return coefficients; }
-    public void setCoefficients(List<Integer> coefficients) { this.coefficients = coefficients; }
-
-    public int getSum() { return sum; }
-    public void setSum(int sum) { this.sum = sum; }
-
-    public String getDomain() { return domain; }
-    public void setDomain(String domain) { this.domain = domain; }
-
-    public List<String> getConstraints() { return constraints; }
-    public void setConstraints(List<String> constraints) { this.constraints = constraints; }
-
-    public int getDigits() { return digits; }
-    public void setDigits(int digits) { this.digits = digits; }
-
-    public boolean isDistinctDigits() { return distinctDigits; }
-    public void setDistinctDigits(boolean distinctDigits) { this.distinctDigits = distinctDigits; }
-
-    public boolean isAdjacentDifferent() { return adjacentDifferent; }
-    public void setAdjacentDifferent(boolean adjacentDifferent) { this.adjacentDifferent = adjacentDifferent; }
-
-    public String getNumberOrder() { return numberOrder; }
-    public void setNumberOrder(String numberOrder) { this.numberOrder = numberOrder; }
-
-    public void setAdditionalParam(String key, Object value) {
-        additionalParams.put(key, value);
+    int digits;
+    boolean distinctDigits = false;
+    boolean adjacentDifferent = false;
+    NumbersSpec.Order numberOrder;
+
+    void addTargetCard(int index) {
+        if (targetCount == targetCards.length) {
+            targetCards = Arrays.copyOf(targetCards, targetCount * 2);
+        }
+        targetCards[targetCount++] = index;
     }
 
-    public Object getAdditionalParam(String key) {
-        return additionalParams.get(key);
+    void addCoefficients(int[] values) {
+        int count = coefficients.length;
+        coefficients = Arrays.copyOf(coefficients, count + values.length);
+        System.arraycopy(values, 0, coefficients, count, values.length);
     }
 
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("Task: %s '%s'",
-                problemType != null ? problemType.getDisplayName() : "Unknown",
-                taskName != null ? taskName : "Unnamed"));
-
-        if (problemType != null) {
-            switch (problemType) {
-                case CARDS:
-                    sb.append(String.format(", Deck: %s (%d cards), Draws: %d (%s), Target: %s",
-                            deckType, deckSize, drawCount,
-                            withReplacement ? "with replacement" : "no replacement",
-                            targetCards.isEmpty() ? (targetCard != null ? targetCard : "None") : targetCards));
-                    break;
-                case WORDS:
-                    sb.append(String.format(", Alphabet: %s, Length: %d, Unique: %s, Conditions: %s",
-                            alphabet, wordLength, uniqueLetters ? "yes" : "no", wordConditions));
-                    break;
-                case CHESS:
-                    sb.append(String.format(", Board: %dx%d, Pieces: %s, Condition: %s",
-                            boardHeight, boardWidth, pieces, attacking ? "attacking" : "non-attacking"));
-                    break;
-                case REMAINDERS:
-                    sb.append(String.format(", Dividend: %s, Divisor: %s, Remainder: %s",
-                            dividend, divisor, remainder));
-                    break;
-                case DIVISIBILITY:
-                    sb.append(String.format(", Number Length: %d, Transformations: %s, Condition: %s",
-                            numberLength, transformations, divisibilityCondition));
-                    break;
-                case BALLS_AND_URNS:
-                    sb.append(String.format(", Urn: %s, Draw: %s, Count: %d",
-                            urnContents, sequentialDraw ? "sequential" : "simultaneous", ballDrawCount));
-                    break;
-                case EQUATIONS:
-                    sb.append(String.format(", Unknowns: %d, Coefficients: %s, Sum: %d, Domain: %s, Constraints: %s",
-                            unknowns, coefficients, sum, domain, constraints));
-                    break;
-                case NUMBERS:
-                    sb.append(String.format(", Digits: %d, Distinct: %s, Adjacent Different: %s, Order: %s",
-                            digits, distinctDigits ? "yes" : "no", adjacentDifferent ? "yes" : "no", numberOrder));
-                    break;
-            }
+    // Цвета из TARGET, которых нет в урне, добавляются с нулём шаров
+    private BallsSpec ballsSpec() {
+        Map<String, Integer> contents = new LinkedHashMap<>(urnContents);
+        for (String color : ballTargets.keySet()) {
+            contents.putIfAbsent(color, 0);
         }
+        String[] colors = contents.keySet().toArray(new String[0]);
+        int[] counts = new int[colors.length];
+        int[] wanted = new int[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            counts[i] = contents.get(colors[i]);
+            wanted[i] = ballTargets.getOrDefault(colors[i], -1);
+        }
+        return new BallsSpec(taskName, calculation, colors, counts, wanted, sequentialDraw, ballDrawCount);
+    }
 
-        sb.append(String.format(", Calculate: %s",
-                calculationType != null ? calculationType : "Unknown"));
-
-        return sb.toString();
+    ProblemSpec toSpec() {
+        if (problemType == null) {
+            return new UntypedSpec(taskName, calculation);
+        }
+        return switch (problemType) {
+            case CARDS -> new CardsSpec(taskName, calculation, deckType, deckSize, drawCount, withReplacement,
+                    Arrays.copyOf(targetCards, targetCount), targetAtLeast, handCategories);
+            case WORDS -> new WordsSpec(taskName, calculation, alphabet, wordLength, uniqueLetters, wordConditions);
+            case CHESS -> new ChessSpec(taskName, calculation, boardHeight, boardWidth, pieces, attacking);
+            case REMAINDERS -> new RemaindersSpec(taskName, calculation, dividend, divisor, remainder);
+            case DIVISIBILITY -> new DivisibilitySpec(taskName, calculation, numberLength, transformations,
+                    divisibilityCondition, factor);
+            case BALLS_AND_URNS -> ballsSpec();
+            case EQUATIONS -> new EquationsSpec(taskName, calculation, unknowns, coefficients, sum, domain, constraints);
+            case NUMBERS -> new NumbersSpec(taskName, calculation, digits, distinctDigits, adjacentDifferent, numberOrder);
+        };
     }
-}
\ No newline at end of file
+}
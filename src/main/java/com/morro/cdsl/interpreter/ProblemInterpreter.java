@@ -1,405 +1,195 @@
 package com.morro.cdsl.interpreter;
 
 import com.morro.cdsl.model.Card;
-import com.morro.cdsl.model.ProblemType;
-import com.morro.cdsl.parser.ASTNode;
-
-import java.util.List;
+import com.morro.cdsl.parser.CDSLParser;
+import com.morro.cdsl.parser.Declaration;
+import com.morro.cdsl.parser.Declaration.*;
+import com.morro.cdsl.parser.Program;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ChessPiece;
+import com.morro.cdsl.spec.DivisibilitySpec;
+import com.morro.cdsl.spec.HandCategory;
+import com.morro.cdsl.spec.NumbersSpec;
+import com.morro.cdsl.spec.ProblemSpec;
+import com.morro.cdsl.spec.WordCondition;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ProblemInterpreter {
 
-    public static ProblemContext interpret(ASTNode ast) {
+    // Все объявления программы сливаются в одну задачу — для программ из одной задачи
+    public static ProblemSpec interpret(Program program) {
         ProblemContext context = new ProblemContext();
 
-        for (ASTNode node : ast.getChildren()) {
-            switch (node.getType()) {
-                case "TASK_DECLARATION":
-                    interpretTaskDeclaration(node, context);
-                    break;
-                case "DECK_DECLARATION":
-                    interpretDeckDeclaration(node, context);
-                    break;
-                case "ALPHABET_DECLARATION":
-                    interpretAlphabetDeclaration(node, context);
-                    break;
-                case "LENGTH_DECLARATION":
-                    interpretLengthDeclaration(node, context);
-                    break;
-                case "UNIQUE_DECLARATION":
-                    interpretUniqueDeclaration(node, context);
-                    break;
-                case "TARGET_DECLARATION":
-                    interpretTargetDeclaration(node, context);
-                    break;
-                case "DRAW_DECLARATION":
-                    interpretDrawDeclaration(node, context);
-                    break;
-                case "CALCULATE":
-                    interpretCalculate(node, context);
-                    break;
-                case "CHESS_DECLARATION":
-                    interpretChessDeclaration(node, context);
-                    break;
-                case "REMAINDERS_DECLARATION":
-                    interpretRemaindersDeclaration(node, context);
-                    break;
-                case "DIVISIBILITY_DECLARATION":
-                    interpretDivisibilityDeclaration(node, context);
-                    break;
-                case "BALLS_DECLARATION":
-                    interpretBallsDeclaration(node, context);
-                    break;
-                case "EQUATIONS_DECLARATION":
-                    interpretEquationsDeclaration(node, context);
-                    break;
-                case "NUMBERS_DECLARATION":
-                    interpretNumbersDeclaration(node, context);
-                    break;
-            }
+        for (Declaration declaration : program.declarations()) {
+            interpretDeclaration(declaration, context);
         }
 
-        return context;
+        return context.toSpec();
     }
 
-    private static void interpretTaskDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "TASK_TYPE":
-                    String taskType = (String) child.getValue();
-                    try {
-                        context.setProblemType(ProblemType.fromCdslName(taskType));
-                    } catch (IllegalArgumentException e) {
-                        context.setProblemType(ProblemType.CARDS);
-                    }
-                    break;
-                case "TASK_NAME":
-                    context.setTaskName((String) child.getValue());
-                    break;
-            }
-        }
+    // Отдельная спецификация на каждый блок TASK; объявления до первого TASK относятся к первой задаче
+    public static Stream<ProblemSpec> interpretTasks(Program program) {
+        return interpretTasks(program.declarations().iterator());
     }
 
-    private static void interpretDeckDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "DECK_TYPE":
-                    context.setDeckType((String) child.getValue());
-                    break;
-                case "DECK_SIZE":
-                    context.setDeckSize((Integer) child.getValue());
-                    break;
-            }
-        }
+    // Ленивый вариант: объявления берутся из парсера по мере надобности, память не зависит от числа задач
+    public static Stream<ProblemSpec> interpretTasks(CDSLParser parser) {
+        return interpretTasks(parser.declarations());
     }
 
-    private static void interpretAlphabetDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            if ("ALPHABET".equals(child.getType())) {
-                context.setAlphabet((String) child.getValue());
-            }
-        }
+    public static Stream<ProblemSpec> interpretTasks(Iterator<Declaration> declarations) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new TaskIterator(declarations),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
-    private static void interpretLengthDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            if ("LENGTH".equals(child.getType())) {
-                context.setWordLength((Integer) child.getValue());
-            }
-        }
-    }
+    private static final class TaskIterator implements Iterator<ProblemSpec> {
+        private final Iterator<Declaration> declarations;
+        private Declaration pending;
 
-    private static void interpretUniqueDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            if ("UNIQUE".equals(child.getType())) {
-                context.setUniqueLetters((Boolean) child.getValue());
-            }
+        TaskIterator(Iterator<Declaration> declarations) {
+            this.declarations = declarations;
         }
-    }
-
-    private static void interpretTargetDeclaration(ASTNode node, ProblemContext context) {
-        ASTNode targetNode = node.getChildren().isEmpty() ? null : node.getChildren().get(0);
 
-        if (targetNode != null) {
-            if ("TARGET_LIST".equals(targetNode.getType())) {
-                for (ASTNode itemNode : targetNode.getChildren()) {
-                    interpretTargetItem(itemNode, context);
-                }
-            } else {
-                interpretTargetItem(targetNode, context);
+        @Override
+        public boolean hasNext() {
+            if (pending == null && declarations.hasNext()) {
+                pending = declarations.next();
             }
+            return pending != null;
         }
-    }
 
-    private static void interpretTargetItem(ASTNode itemNode, ProblemContext context) {
-        if ("CARD".equals(itemNode.getType())) {
-            Card card = interpretCard(itemNode);
-            if (card != null) {
-                context.getTargetCards().add(card);
-                if (context.getTargetCard() == null) {
-                    context.setTargetCard(card);
-                }
-            }
-        } else if ("CONDITION".equals(itemNode.getType())) {
-            String condition = interpretCondition(itemNode);
-            if (condition != null) {
-                context.addWordCondition(condition);
+        @Override
+        public ProblemSpec next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-        }
-    }
 
-    private static Card interpretCard(ASTNode cardNode) {
-        String rank = null;
-        String suit = null;
-
-        for (ASTNode child : cardNode.getChildren()) {
-            switch (child.getType()) {
-                case "RANK":
-                    rank = (String) child.getValue();
-                    break;
-                case "SUIT":
-                    suit = (String) child.getValue();
+            ProblemContext context = new ProblemContext();
+            boolean seenTask = false;
+            while (pending != null) {
+                boolean task = pending instanceof TaskDecl;
+                if (task && seenTask) {
                     break;
+                }
+                seenTask |= task;
+                interpretDeclaration(pending, context);
+                pending = declarations.hasNext() ? declarations.next() : null;
             }
+            return context.toSpec();
         }
-
-        if (rank != null && suit != null) {
-            return new Card(rank, suit);
-        }
-        return null;
     }
 
-    private static String interpretCondition(ASTNode conditionNode) {
-        for (ASTNode child : conditionNode.getChildren()) {
-            if ("CONDITION_TYPE".equals(child.getType())) {
-                return (String) child.getValue();
+    private static void interpretDeclaration(Declaration declaration, ProblemContext context) {
+        switch (declaration) {
+            case TaskDecl task -> {
+                if (task.type() != null) {
+                    context.problemType = task.type();
+                    context.taskName = task.name();
+                }
             }
-        }
-        return null;
-    }
-
-    private static void interpretDrawDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "DRAW_COUNT":
-                    context.setDrawCount((Integer) child.getValue());
-                    break;
-                case "REPLACEMENT":
-                    String replacement = (String) child.getValue();
-                    context.setWithReplacement("REPLACEMENT".equals(replacement));
-                    break;
+            case DeckDecl deck -> {
+                context.deckType = deck.deckType();
+                context.deckSize = deck.size();
+            }
+            case AlphabetDecl alphabet -> context.alphabet = alphabet.alphabet();
+            case LengthDecl length -> context.wordLength = length.length();
+            case UniqueDecl unique -> context.uniqueLetters = unique.unique();
+            case TargetList targets -> {
+                context.targetAtLeast |= targets.atLeast();
+                for (Target target : targets.targets()) {
+                    interpretTarget(target, context);
+                }
             }
-        }
-    }
-
-    private static void interpretCalculate(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            if ("CALCULATION_TYPE".equals(child.getType())) {
-                context.setCalculationType((String) child.getValue());
+            case DrawDecl draw -> {
+                context.drawCount = draw.count();
+                context.withReplacement = draw.withReplacement();
             }
-        }
-    }
-
-    // Шахматы
-    private static void interpretChessDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "BOARD_HEIGHT":
-                    context.setBoardHeight((Integer) child.getValue());
-                    break;
-                case "BOARD_WIDTH":
-                    context.setBoardWidth((Integer) child.getValue());
-                    break;
-                case "PIECE_LIST":
-                    interpretPieceList(child, context);
-                    break;
-                case "ATTACKING_CONDITION":
-                    context.setAttacking((Boolean) child.getValue());
-                    break;
+            // Свободное условие пока ничего не задаёт
+            case ConditionDecl condition -> {
             }
-        }
-    }
-
-    private static void interpretPieceList(ASTNode node, ProblemContext context) {
-        for (ASTNode pieceNode : node.getChildren()) {
-            if ("PIECE".equals(pieceNode.getType())) {
-                String pieceType = null;
-                Integer count = null;
+            case CalculateDecl calculate -> context.calculation = Calculation.valueOf(calculate.calculationType());
 
-                for (ASTNode child : pieceNode.getChildren()) {
-                    if ("PIECE_TYPE".equals(child.getType())) {
-                        pieceType = (String) child.getValue();
-                    } else if ("PIECE_COUNT".equals(child.getType())) {
-                        count = (Integer) child.getValue();
+            // Шахматы
+            case BoardHeightDecl height -> context.boardHeight = height.height();
+            case BoardWidthDecl width -> context.boardWidth = width.width();
+            case PieceList pieces -> {
+                for (Piece piece : pieces.pieces()) {
+                    // Фигуры с неизвестным названием не учитываются
+                    ChessPiece kind = ChessPiece.fromName(piece.type());
+                    if (kind != null) {
+                        context.pieces[kind.ordinal()] = piece.count();
                     }
                 }
-
-                if (pieceType != null && count != null) {
-                    context.getPieces().put(pieceType, count);
-                }
             }
-        }
-    }
+            case AttackingDecl attacking -> context.attacking = attacking.attacking();
 
-    // Остатки
-    private static void interpretRemaindersDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "DIVIDEND":
-                    context.setDividend((String) child.getValue());
-                    break;
-                case "DIVISOR":
-                    context.setDivisor((String) child.getValue());
-                    break;
-                case "REMAINDER":
-                    context.setRemainder((String) child.getValue());
-                    break;
-            }
-        }
-    }
+            // Остатки
+            case DividendDecl dividend -> context.dividend = dividend.dividend().replace("\"", "");
+            case DivisorDecl divisor -> context.divisor = divisor.divisor();
+            case RemainderDecl remainder -> context.remainder = remainder.remainder();
 
-    // Делимости
-    private static void interpretDivisibilityDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "NUMBER_LENGTH":
-                    context.setNumberLength((Integer) child.getValue());
-                    break;
-                case "TRANSFORMATION_LIST":
-                    interpretTransformationList(child, context);
-                    break;
-                case "DIVISIBILITY_CONDITION":
-                    interpretDivisibilityCondition(child, context);
-                    break;
+            // Делимости
+            case NumberLengthDecl length -> context.numberLength = length.length();
+            case TransformationList transformations -> context.transformations.addAll(transformations.transformations());
+            case DivisibilityConditionDecl condition -> {
+                context.divisibilityCondition = DivisibilitySpec.Condition.valueOf(condition.kind().name());
+                context.factor = condition.factor().orElse(0);
             }
-        }
-    }
 
-    private static void interpretTransformationList(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            if ("TRANSFORMATION".equals(child.getType())) {
-                context.getTransformations().add((String) child.getValue());
+            // Шары и урны
+            case UrnDecl urn -> {
             }
-        }
-    }
-
-    private static void interpretDivisibilityCondition(ASTNode node, ProblemContext context) {
-        String conditionType = null;
-        Integer factor = null;
-
-        for (ASTNode child : node.getChildren()) {
-            if ("CONDITION_TYPE".equals(child.getType())) {
-                conditionType = (String) child.getValue();
-            } else if ("FACTOR".equals(child.getType())) {
-                factor = (Integer) child.getValue();
+            case UrnContents contents -> {
+                for (Ball ball : contents.balls()) {
+                    context.urnContents.put(ball.color(), ball.count());
+                }
             }
-        }
+            case DrawTypeDecl drawType -> context.sequentialDraw = drawType.sequential();
+            case DrawCountDecl drawCount -> context.ballDrawCount = drawCount.count();
 
-        if (conditionType != null) {
-            String fullCondition = conditionType;
-            if (factor != null) {
-                fullCondition += " " + factor;
-            }
-            context.setDivisibilityCondition(fullCondition);
-        }
-    }
+            // Уравнения
+            case UnknownsDecl unknowns -> context.unknowns = unknowns.unknowns();
+            case CoefficientList coefficients -> context.addCoefficients(coefficients.coefficients());
+            case SumDecl sum -> context.sum = sum.sum();
+            case DomainDecl domain -> context.domain = domain.domain();
+            case ConstraintList constraints -> context.constraints.addAll(constraints.constraints());
 
-    // Шары и урны
-    private static void interpretBallsDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "URN_NAME":
-                    context.setAdditionalParam("urnName", child.getValue());
-                    break;
-                case "URN_CONTENTS":
-                    interpretUrnContents(child, context);
-                    break;
-                case "DRAW_TYPE":
-                    context.setSequentialDraw("SEQUENTIAL".equals(child.getValue()));
-                    break;
-                case "DRAW_COUNT":
-                    context.setBallDrawCount((Integer) child.getValue());
-                    break;
-            }
+            // Числа
+            case DigitsDecl digits -> context.digits = digits.digits();
+            case DistinctDecl distinct -> context.distinctDigits = distinct.distinct();
+            case AdjacentDifferentDecl adjacent -> context.adjacentDifferent = adjacent.adjacentDifferent();
+            case OrderDecl order -> context.numberOrder = NumbersSpec.Order.valueOf(order.order());
         }
     }
 
-    private static void interpretUrnContents(ASTNode node, ProblemContext context) {
-        for (ASTNode ballNode : node.getChildren()) {
-            if ("BALL_COLOR".equals(ballNode.getType())) {
-                String color = null;
-                Integer count = null;
-
-                for (ASTNode child : ballNode.getChildren()) {
-                    if ("COLOR".equals(child.getType())) {
-                        color = (String) child.getValue();
-                    } else if ("COUNT".equals(child.getType())) {
-                        count = (Integer) child.getValue();
+    private static void interpretTarget(Target target, ProblemContext context) {
+        switch (target) {
+            // Карты вне стандартной колоды и неизвестные условия не учитываются
+            case CardTarget card -> {
+                int index = Card.index(card.rank(), card.suit());
+                if (index >= 0) {
+                    context.addTargetCard(index);
+                }
+            }
+            case ConditionTarget condition -> {
+                for (WordCondition known : WordCondition.values()) {
+                    if (known.name().equalsIgnoreCase(condition.condition())) {
+                        context.wordConditions |= known.mask();
                     }
                 }
-
-                if (color != null && count != null) {
-                    context.getUrnContents().put(color, count);
+                for (HandCategory known : HandCategory.values()) {
+                    if (known.name().equalsIgnoreCase(condition.condition())) {
+                        context.handCategories |= known.mask();
+                    }
                 }
             }
+            case ColorTarget color -> context.ballTargets.put(color.color(), color.count());
         }
     }
-
-    // Уравнения
-    private static void interpretEquationsDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "UNKNOWNS":
-                    context.setUnknowns((Integer) child.getValue());
-                    break;
-                case "COEFFICIENTS_LIST":
-                    interpretCoefficientsList(child, context);
-                    break;
-                case "SUM":
-                    context.setSum((Integer) child.getValue());
-                    break;
-                case "DOMAIN":
-                    context.setDomain((String) child.getValue());
-                    break;
-                case "CONSTRAINTS_LIST":
-                    interpretConstraintsList(child, context);
-                    break;
-            }
-        }
-    }
-
-    private static void interpretCoefficientsList(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            if ("COEFFICIENT".equals(child.getType())) {
-                context.getCoefficients().add((Integer) child.getValue());
-            }
-        }
-    }
-
-    private static void interpretConstraintsList(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            if ("CONSTRAINT".equals(child.getType())) {
-                context.getConstraints().add((String) child.getValue());
-            }
-        }
-    }
-
-    // Числа
-    private static void interpretNumbersDeclaration(ASTNode node, ProblemContext context) {
-        for (ASTNode child : node.getChildren()) {
-            switch (child.getType()) {
-                case "DIGITS":
-                    context.setDigits((Integer) child.getValue());
-                    break;
-                case "DISTINCT":
-                    context.setDistinctDigits((Boolean) child.getValue());
-                    break;
-                case "ADJACENT_DIFFERENT":
-                    context.setAdjacentDifferent((Boolean) child.getValue());
-                    break;
-                case "ORDER":
-                    context.setNumberOrder((String) child.getValue());
-                    break;
-            }
-        }
-    }
-}
\ No newline at end of file
+}
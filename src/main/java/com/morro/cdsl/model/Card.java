@@ -3,6 +3,11 @@ package com.morro.cdsl.model;
 import java.util.Objects;
 
 public class Card {
+    // Порядок задаёт номер карты: index = ранг * 4 + масть, всего 52 карты
+    public static final String[] RANKS = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "JACK", "QUEEN", "KING", "ACE"};
+    public static final String[] SUITS = {"HEARTS", "DIAMONDS", "CLUBS", "SPADES"};
+    public static final int DECK_SIZE = RANKS.length * SUITS.length;
+
     private final String rank;
     private final String suit;
 
@@ -14,6 +19,34 @@ public class Card {
     public String getRank() { return rank; }
     public String getSuit() { return suit; }
 
+    // Номер карты в полной колоде; -1 — ранг или масть не из стандартного набора
+    public int index() {
+        return index(rank, suit);
+    }
+
+    // Карта как бит в long: колода и рука задаются масками, пересечение — одной операцией
+    public long bit() {
+        int index = index();
+        return index < 0 ? 0 : 1L << index;
+    }
+
+    public static int index(String rank, String suit) {
+        int r = indexOf(RANKS, rank);
+        int s = indexOf(SUITS, suit);
+        return r < 0 || s < 0 ? -1 : r * SUITS.length + s;
+    }
+
+    public static Card fromIndex(int index) {
+        return new Card(RANKS[index / SUITS.length], SUITS[index % SUITS.length]);
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equalsIgnoreCase(value)) return i;
+        }
+        return -1;
+    }
+
     @Override
     public String toString() {
         return rank + " of " + suit;
@@ -1,637 +1,433 @@
 package com.morro.cdsl.parser;
 
+import com.morro.cdsl.model.Card;
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.parser.Declaration.*;
 import com.morro.cdsl.tokenizer.Token;
+import com.morro.cdsl.tokenizer.TokenCursor;
 import com.morro.cdsl.tokenizer.TokenType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
 
 public class CDSLParser {
-    private final List<Token> tokens;
-    private int current = 0;
+    // Токены, с которых начинается команда: на них парсер восстанавливается после ошибки
+    private static final EnumSet<TokenType> COMMANDS = EnumSet.of(
+            TokenType.TASK, TokenType.DECK, TokenType.ALPHABET, TokenType.SET, TokenType.LENGTH,
+            TokenType.UNIQUE, TokenType.ALLOW_DUPLICATES, TokenType.TARGET, TokenType.DRAW,
+            TokenType.CONDITION, TokenType.CALCULATE,
+            TokenType.BOARD_HEIGHT, TokenType.BOARD_WIDTH, TokenType.PIECES,
+            TokenType.ATTACKING, TokenType.NON_ATTACKING,
+            TokenType.DIVIDEND, TokenType.DIVISOR, TokenType.REMAINDER,
+            TokenType.NUMBER_LENGTH, TokenType.TRANSFORMATION,
+            TokenType.INCREASES_BY_FACTOR, TokenType.DECREASES_BY_FACTOR, TokenType.UNCHANGED,
+            TokenType.INCREASES_BY, TokenType.DECREASES_BY,
+            TokenType.URN, TokenType.CONTENTS, TokenType.DRAW_SEQUENTIAL, TokenType.DRAW_SIMULTANEOUS,
+            TokenType.DRAW_COUNT,
+            TokenType.UNKNOWNS, TokenType.COEFFICIENTS, TokenType.SUM, TokenType.DOMAIN, TokenType.CONSTRAINTS,
+            TokenType.DIGITS, TokenType.DISTINCT, TokenType.ADJACENT_DIFFERENT,
+            TokenType.INCREASING, TokenType.NON_DECREASING, TokenType.DECREASING, TokenType.NON_INCREASING);
+
+    private final TokenCursor tokens;
+    private final Diagnostics diagnostics = new Diagnostics();
 
     public CDSLParser(List<Token> tokens) {
+        this(tokens.iterator());
+    }
+
+    // Разбор потока токенов (например, CDSLTokenizer.stream) без накопления всего входа
+    public CDSLParser(Iterator<Token> tokens) {
+        this(TokenCursor.over(tokens));
+    }
+
+    // Разбор без объектов Token, например по TokenBuffer.cursor()
+    public CDSLParser(TokenCursor tokens) {
         this.tokens = tokens;
     }
 
-    public ASTNode parse() {
-        ASTNode program = new ASTNode("PROGRAM");
+    public Program parse() {
+        List<Declaration> declarations = new ArrayList<>();
 
-        while (!isAtEnd()) {
-            try {
-                if (match(TokenType.TASK)) {
-                    program.addChild(parseTaskDeclaration());
-                } else if (match(TokenType.DECK)) {
-                    program.addChild(parseDeckDeclaration());
-                } else if (match(TokenType.ALPHABET) || match(TokenType.SET)) {
-                    program.addChild(parseAlphabetDeclaration());
-                } else if (match(TokenType.LENGTH)) {
-                    program.addChild(parseLengthDeclaration());
-                } else if (match(TokenType.UNIQUE) || match(TokenType.ALLOW_DUPLICATES)) {
-                    program.addChild(parseUniqueDeclaration());
-                } else if (match(TokenType.TARGET)) {
-                    program.addChild(parseTargetDeclaration());
-                } else if (match(TokenType.DRAW)) {
-                    program.addChild(parseDrawDeclaration());
-                } else if (match(TokenType.CONDITION)) {
-                    program.addChild(parseCondition());
-                } else if (match(TokenType.CALCULATE)) {
-                    program.addChild(parseCalculate());
-                } else if (match(TokenType.BOARD_HEIGHT) || match(TokenType.BOARD_WIDTH) ||
-                        match(TokenType.PIECES) || match(TokenType.ATTACKING) || match(TokenType.NON_ATTACKING)) {
-                    program.addChild(parseChessDeclaration());
-                } else if (match(TokenType.DIVIDEND) || match(TokenType.DIVISOR) || match(TokenType.REMAINDER)) {
-                    program.addChild(parseRemaindersDeclaration());
-                } else if (match(TokenType.NUMBER_LENGTH) || match(TokenType.TRANSFORMATION) ||
-                        match(TokenType.INCREASES_BY_FACTOR) || match(TokenType.DECREASES_BY_FACTOR) ||
-                        match(TokenType.UNCHANGED) || match(TokenType.INCREASES_BY) || match(TokenType.DECREASES_BY)) {
-                    program.addChild(parseDivisibilityDeclaration());
-                } else if (match(TokenType.URN) || match(TokenType.CONTENTS) ||
-                        match(TokenType.DRAW_SEQUENTIAL) || match(TokenType.DRAW_SIMULTANEOUS)) {
-                    program.addChild(parseBallsDeclaration());
-                } else if (match(TokenType.UNKNOWNS) || match(TokenType.COEFFICIENTS) || match(TokenType.SUM) ||
-                        match(TokenType.DOMAIN) || match(TokenType.CONSTRAINTS)) {
-                    program.addChild(parseEquationsDeclaration());
-                } else if (match(TokenType.DIGITS) || match(TokenType.DISTINCT) || match(TokenType.ADJACENT_DIFFERENT) ||
-                        match(TokenType.INCREASING) || match(TokenType.NON_DECREASING) ||
-                        match(TokenType.DECREASING) || match(TokenType.NON_INCREASING)) {
-                    program.addChild(parseNumbersDeclaration());
-                } else {
-                    Token unknown = advance();
-                    System.out.println("Skipping unknown token: " + unknown.getValue() + " at line " + unknown.getLine());
-                }
-            } catch (Exception e) {
-                System.err.println("Parse error: " + e.getMessage());
-                if (!isAtEnd()) {
-                    advance();
-                }
-            }
+        Declaration declaration;
+        while ((declaration = parseNext()) != null) {
+            declarations.add(declaration);
         }
 
-        return program;
+        return new Program(declarations, diagnostics.list());
     }
 
-    private ASTNode parseTaskDeclaration() {
-        ASTNode node = new ASTNode("TASK_DECLARATION");
-
-        if (match(TokenType.CARDS, TokenType.WORDS, TokenType.NUMBERS, TokenType.EQUATIONS,
-                TokenType.BALLS, TokenType.DIVISIBILITY, TokenType.REMAINDERS, TokenType.CHESS)) {
-            node.addChild(new ASTNode("TASK_TYPE", previous().getValue()));
-        } else {
-            System.err.println("Unknown task type: " + (isAtEnd() ? "EOF" : peek().getValue()));
-            while (!isAtEnd() && !isNextCommand()) {
-                advance();
+    // Разбирает следующее объявление верхнего уровня; null — вход закончился
+    public Declaration parseNext() {
+        while (!isAtEnd()) {
+            Declaration declaration = parseDeclaration();
+            if (declaration != null) {
+                return declaration;
             }
-            return node;
-        }
-
-        if (match(TokenType.STRING)) {
-            String taskName = previous().getValue().replaceAll("\"", "");
-            node.addChild(new ASTNode("TASK_NAME", taskName));
-        } else {
-            node.addChild(new ASTNode("TASK_NAME", ""));
         }
+        return null;
+    }
 
-        return node;
+    // Сообщения, накопленные с начала разбора, в том числе при разборе через parseNext()
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
     }
 
-    private ASTNode parseAlphabetDeclaration() {
-        ASTNode node = new ASTNode("ALPHABET_DECLARATION");
+    // Ленивый итератор по объявлениям верхнего уровня поверх parseNext()
+    public Iterator<Declaration> declarations() {
+        return new Iterator<>() {
+            private Declaration next;
 
-        if (match(TokenType.STRING)) {
-            String alphabet = previous().getValue().replaceAll("\"", "");
-            node.addChild(new ASTNode("ALPHABET", alphabet));
-        } else {
-            node.addChild(new ASTNode("ALPHABET", "ABCDEFGHIJKLMNOPQRSTUVWXYZ"));
-        }
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = parseNext();
+                }
+                return next != null;
+            }
 
-        return node;
+            @Override
+            public Declaration next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Declaration declaration = next;
+                next = null;
+                return declaration;
+            }
+        };
     }
 
-    private ASTNode parseLengthDeclaration() {
-        ASTNode node = new ASTNode("LENGTH_DECLARATION");
-
-        if (match(TokenType.INTEGER)) {
-            node.addChild(new ASTNode("LENGTH", Integer.parseInt(previous().getValue())));
-        } else {
-            node.addChild(new ASTNode("LENGTH", 5));
+    // null — команда без обязательного значения: ошибка записана, команда пропускается
+    private Declaration parseDeclaration() {
+        if (match(TokenType.TASK)) {
+            return parseTaskDeclaration();
+        } else if (match(TokenType.DECK)) {
+            return parseDeckDeclaration();
+        } else if (match(TokenType.ALPHABET) || match(TokenType.SET)) {
+            return parseAlphabetDeclaration();
+        } else if (match(TokenType.LENGTH)) {
+            return parseLengthDeclaration();
+        } else if (match(TokenType.UNIQUE) || match(TokenType.ALLOW_DUPLICATES)) {
+            return parseUniqueDeclaration();
+        } else if (match(TokenType.TARGET)) {
+            return parseTargetDeclaration();
+        } else if (match(TokenType.DRAW)) {
+            return parseDrawDeclaration();
+        } else if (match(TokenType.CONDITION)) {
+            return parseCondition();
+        } else if (match(TokenType.CALCULATE)) {
+            return parseCalculate();
+        } else if (match(TokenType.BOARD_HEIGHT) || match(TokenType.BOARD_WIDTH) ||
+                match(TokenType.PIECES) || match(TokenType.ATTACKING) || match(TokenType.NON_ATTACKING)) {
+            return parseChessDeclaration();
+        } else if (match(TokenType.DIVIDEND) || match(TokenType.DIVISOR) || match(TokenType.REMAINDER)) {
+            return parseRemaindersDeclaration();
+        } else if (match(TokenType.NUMBER_LENGTH) || match(TokenType.TRANSFORMATION) ||
+                match(TokenType.INCREASES_BY_FACTOR) || match(TokenType.DECREASES_BY_FACTOR) ||
+                match(TokenType.UNCHANGED) || match(TokenType.INCREASES_BY) || match(TokenType.DECREASES_BY)) {
+            return parseDivisibilityDeclaration();
+        } else if (match(TokenType.URN) || match(TokenType.CONTENTS) ||
+                match(TokenType.DRAW_SEQUENTIAL) || match(TokenType.DRAW_SIMULTANEOUS) ||
+                match(TokenType.DRAW_COUNT)) {
+            return parseBallsDeclaration();
+        } else if (match(TokenType.UNKNOWNS) || match(TokenType.COEFFICIENTS) || match(TokenType.SUM) ||
+                match(TokenType.DOMAIN) || match(TokenType.CONSTRAINTS)) {
+            return parseEquationsDeclaration();
+        } else if (match(TokenType.DIGITS) || match(TokenType.DISTINCT) || match(TokenType.ADJACENT_DIFFERENT) ||
+                match(TokenType.INCREASING) || match(TokenType.NON_DECREASING) ||
+                match(TokenType.DECREASING) || match(TokenType.NON_INCREASING)) {
+            return parseNumbersDeclaration();
+        }
+
+        // Весь участок до следующей команды пропускается с одним сообщением
+        diagnostics.warning(tokens.line(0), tokens.column(0), "command", found());
+        advance();
+        synchronize();
+        return null;
+    }
+
+    private TaskDecl parseTaskDeclaration() {
+        if (!match(TokenType.CARDS, TokenType.WORDS, TokenType.NUMBERS, TokenType.EQUATIONS,
+                TokenType.BALLS, TokenType.DIVISIBILITY, TokenType.REMAINDERS, TokenType.CHESS)) {
+            error("task type");
+            synchronize();
+            return new TaskDecl(null, null);
         }
 
-        return node;
+        ProblemType type = ProblemType.fromCdslName(previousValue());
+        String taskName = match(TokenType.STRING) ? previousValue().replaceAll("\"", "") : "";
+        return new TaskDecl(type, taskName);
     }
 
-    private ASTNode parseUniqueDeclaration() {
-        ASTNode node = new ASTNode("UNIQUE_DECLARATION");
+    private AlphabetDecl parseAlphabetDeclaration() {
+        if (match(TokenType.STRING)) {
+            return new AlphabetDecl(previousValue().replaceAll("\"", ""));
+        }
+        return new AlphabetDecl("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+    }
 
-        boolean isUniqueDeclaration = previous().getType() == TokenType.UNIQUE;
-        boolean uniqueValue = true;
+    private LengthDecl parseLengthDeclaration() {
+        return new LengthDecl(matchInt() ? previousInt() : 5);
+    }
 
+    private UniqueDecl parseUniqueDeclaration() {
         if (match(TokenType.BOOLEAN)) {
-            String boolValue = previous().getValue().toUpperCase();
-            uniqueValue = "YES".equals(boolValue) || "TRUE".equals(boolValue);
-        } else if (isUniqueDeclaration) {
-            uniqueValue = true;
-        } else {
-            uniqueValue = false;
+            return new UniqueDecl(previousBoolean());
         }
-
-        node.addChild(new ASTNode("UNIQUE", uniqueValue));
-        return node;
+        return new UniqueDecl(previousType() == TokenType.UNIQUE);
     }
 
-    private ASTNode parseDeckDeclaration() {
-        ASTNode node = new ASTNode("DECK_DECLARATION");
-
+    private DeckDecl parseDeckDeclaration() {
+        String deckType = "STANDARD";
         if (match(TokenType.STANDARD, TokenType.FRENCH, TokenType.SPANISH, TokenType.CUSTOM)) {
-            node.addChild(new ASTNode("DECK_TYPE", previous().getValue()));
-        } else {
-            node.addChild(new ASTNode("DECK_TYPE", "STANDARD"));
+            deckType = previousType().name();
         }
 
-        if (match(TokenType.INTEGER)) {
-            node.addChild(new ASTNode("DECK_SIZE", Integer.parseInt(previous().getValue())));
-        } else {
-            node.addChild(new ASTNode("DECK_SIZE", 52));
-        }
-
-        return node;
+        int deckSize = matchInt() ? previousInt() : Card.DECK_SIZE;
+        return new DeckDecl(deckType, deckSize);
     }
 
-    private ASTNode parseTargetDeclaration() {
-        ASTNode node = new ASTNode("TARGET_DECLARATION");
-
+    private TargetList parseTargetDeclaration() {
+        boolean atLeast = match(TokenType.AT_LEAST);
         if (match(TokenType.LBRACKET)) {
-            node.addChild(parseTargetList());
-        } else {
-            try {
-                if (checkCardComponents()) {
-                    node.addChild(parseSingleCard());
-                } else {
-                    node.addChild(parseSingleCondition());
-                }
-            } catch (Exception e) {
-                System.err.println("Error parsing target: " + e.getMessage());
-                while (!isAtEnd() && !isNextCommand()) {
-                    advance();
-                }
-            }
+            return new TargetList(parseTargetList(), atLeast);
         }
 
-        return node;
+        Target target = checkCardComponents() ? parseSingleCard() : parseSingleCondition();
+        if (target == null) {
+            synchronize();
+            return new TargetList(List.of(), atLeast);
+        }
+        return new TargetList(List.of(target), atLeast);
     }
 
-    private ASTNode parseTargetList() {
-        ASTNode node = new ASTNode("TARGET_LIST");
+    private List<Target> parseTargetList() {
+        List<Target> targets = new ArrayList<>();
 
         while (!isAtEnd() && !check(TokenType.RBRACKET)) {
-            try {
-                if (checkCardComponents()) {
-                    node.addChild(parseSingleCard());
-                } else {
-                    node.addChild(parseSingleCondition());
-                }
-
-                if (match(TokenType.COMMA)) {
-                    continue;
-                }
-            } catch (Exception e) {
-                System.err.println("Error parsing target in list: " + e.getMessage());
-                break;
+            Target target = checkCardComponents() ? parseSingleCard() : parseSingleCondition();
+            if (target == null) {
+                synchronize();
+                return targets;
             }
+            targets.add(target);
+            match(TokenType.COMMA);
         }
 
-        if (!match(TokenType.RBRACKET)) {
-            System.err.println("Expected ']' but found: " + (isAtEnd() ? "EOF" : peek().getValue()));
-        }
-
-        return node;
+        expectClosingBracket();
+        return targets;
     }
 
-    private ASTNode parseSingleCard() {
-        ASTNode node = new ASTNode("CARD");
-
-        String rank = null;
-        if (match(TokenType.RANK, TokenType.ACE, TokenType.KING, TokenType.QUEEN, TokenType.JACK)) {
-            rank = normalizeRank(previous().getValue());
-        } else if (match(TokenType.INTEGER)) {
-            rank = previous().getValue();
-        } else {
-            throw new RuntimeException("Expected card rank, found: " + (isAtEnd() ? "EOF" : peek().getValue()));
-        }
-        node.addChild(new ASTNode("RANK", rank));
-
-        String suit = null;
-        if (match(TokenType.HEARTS, TokenType.DIAMONDS, TokenType.CLUBS, TokenType.SPADES)) {
-            suit = normalizeSuit(previous().getValue());
-        } else {
-            throw new RuntimeException("Expected card suit, found: " + (isAtEnd() ? "EOF" : peek().getValue()));
-        }
-        node.addChild(new ASTNode("SUIT", suit));
-
-        return node;
+    // Ранг и масть уже проверены checkCardComponents()
+    private CardTarget parseSingleCard() {
+        advance();
+        String rank = previousType() == TokenType.INTEGER ? previousValue() : normalizeRank(previousValue());
+        advance();
+        return new CardTarget(rank, normalizeSuit(previousValue()));
     }
 
-    private ASTNode parseSingleCondition() {
-        ASTNode node = new ASTNode("CONDITION");
-
+    private Target parseSingleCondition() {
         if (match(TokenType.PALINDROME, TokenType.ALTERNATING,
                 TokenType.CONSONANT_FOLLOWED_BY_VOWEL, TokenType.VOWEL_FOLLOWED_BY_CONSONANT,
                 TokenType.MORE_VOWELS_THAN_CONSONANTS, TokenType.MORE_CONSONANTS_THAN_VOWELS,
-                TokenType.EQUAL_VOWELS_CONSONANTS)) {
-            node.addChild(new ASTNode("CONDITION_TYPE", previous().getValue()));
-        } else {
-            if (match(TokenType.STRING)) {
-                String condition = previous().getValue().replaceAll("\"", "");
-                node.addChild(new ASTNode("CONDITION_TYPE", condition));
-            } else if (!isAtEnd() && !check(TokenType.RBRACKET) && !check(TokenType.COMMA)) {
-                Token token = advance();
-                node.addChild(new ASTNode("CONDITION_TYPE", token.getValue()));
-            } else {
-                throw new RuntimeException("Expected condition type");
-            }
+                TokenType.EQUAL_VOWELS_CONSONANTS,
+                TokenType.HIGH_CARD, TokenType.ONE_PAIR, TokenType.TWO_PAIR, TokenType.THREE_OF_A_KIND,
+                TokenType.STRAIGHT, TokenType.FLUSH, TokenType.FULL_HOUSE, TokenType.FOUR_OF_A_KIND,
+                TokenType.STRAIGHT_FLUSH, TokenType.ROYAL_FLUSH)) {
+            return new ConditionTarget(previousType().name());
+        } else if (match(TokenType.STRING)) {
+            String value = previousValue().replaceAll("\"", "");
+            return matchInt() ? new ColorTarget(value, previousInt()) : new ConditionTarget(value);
+        } else if (!isAtEnd() && !check(TokenType.RBRACKET) && !check(TokenType.COMMA)) {
+            advance();
+            return new ConditionTarget(previousValue());
         }
-
-        return node;
+        error("condition");
+        return null;
     }
 
-    private ASTNode parseDrawDeclaration() {
-        ASTNode node = new ASTNode("DRAW_DECLARATION");
-
-        if (match(TokenType.INTEGER)) {
-            node.addChild(new ASTNode("DRAW_COUNT", Integer.parseInt(previous().getValue())));
-        } else {
-            node.addChild(new ASTNode("DRAW_COUNT", 1));
-        }
+    private DrawDecl parseDrawDeclaration() {
+        int drawCount = matchInt() ? previousInt() : 1;
 
+        boolean withReplacement = false;
         if (match(TokenType.REPLACEMENT, TokenType.NO_REPLACEMENT)) {
-            node.addChild(new ASTNode("REPLACEMENT", previous().getValue()));
-        } else {
-            node.addChild(new ASTNode("REPLACEMENT", "NO_REPLACEMENT"));
+            withReplacement = previousType() == TokenType.REPLACEMENT;
         }
 
-        return node;
+        return new DrawDecl(drawCount, withReplacement);
     }
 
-    private ASTNode parseCondition() {
-        ASTNode node = new ASTNode("CONDITION");
+    private ConditionDecl parseCondition() {
         StringBuilder conditionBuilder = new StringBuilder();
         while (!isAtEnd() && !check(TokenType.CALCULATE)) {
-            conditionBuilder.append(previous().getValue()).append(" ");
+            conditionBuilder.append(previousValue()).append(" ");
             advance();
         }
-        node.addChild(new ASTNode("CONDITION_EXPR", conditionBuilder.toString().trim()));
-        return node;
+        return new ConditionDecl(conditionBuilder.toString().trim());
     }
 
-    private ASTNode parseCalculate() {
-        ASTNode node = new ASTNode("CALCULATE");
-
-        if (match(TokenType.PROBABILITY, TokenType.COMBINATIONS, TokenType.EXPECTATION)) {
-            node.addChild(new ASTNode("CALCULATION_TYPE", previous().getValue()));
-        } else {
-            node.addChild(new ASTNode("CALCULATION_TYPE", "PROBABILITY"));
+    private CalculateDecl parseCalculate() {
+        if (match(TokenType.PROBABILITY, TokenType.COMBINATIONS, TokenType.EXPECTATION,
+                TokenType.DISTINCT_COMBINATIONS, TokenType.SIMULATION)) {
+            return new CalculateDecl(previousType().name());
         }
-
-        return node;
+        return new CalculateDecl("PROBABILITY");
     }
 
     // Шахматы
-    private ASTNode parseChessDeclaration() {
-        ASTNode node = new ASTNode("CHESS_DECLARATION");
-
-        if (previous().getType() == TokenType.BOARD_HEIGHT) {
-            if (match(TokenType.INTEGER)) {
-                node.addChild(new ASTNode("BOARD_HEIGHT", Integer.parseInt(previous().getValue())));
-            }
-        }
-
-        if (previous().getType() == TokenType.BOARD_WIDTH || check(TokenType.BOARD_WIDTH)) {
-            if (match(TokenType.BOARD_WIDTH)) {
-                if (match(TokenType.INTEGER)) {
-                    node.addChild(new ASTNode("BOARD_WIDTH", Integer.parseInt(previous().getValue())));
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.PIECES || check(TokenType.PIECES)) {
-            if (match(TokenType.PIECES)) {
-                if (match(TokenType.LBRACKET)) {
-                    node.addChild(parsePieceList());
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.ATTACKING || check(TokenType.ATTACKING)) {
-            if (match(TokenType.ATTACKING)) {
-                node.addChild(new ASTNode("ATTACKING_CONDITION", true));
-            }
-        }
-
-        if (previous().getType() == TokenType.NON_ATTACKING || check(TokenType.NON_ATTACKING)) {
-            if (match(TokenType.NON_ATTACKING)) {
-                node.addChild(new ASTNode("ATTACKING_CONDITION", false));
-            }
-        }
-
-        return node;
+    private Declaration parseChessDeclaration() {
+        return switch (previousType()) {
+            case BOARD_HEIGHT -> expectInt() ? new BoardHeightDecl(previousInt()) : null;
+            case BOARD_WIDTH -> expectInt() ? new BoardWidthDecl(previousInt()) : null;
+            case PIECES -> expect(TokenType.LBRACKET, "'['") ? parsePieceList() : null;
+            case ATTACKING -> new AttackingDecl(true);
+            default -> new AttackingDecl(false);
+        };
     }
 
-    private ASTNode parsePieceList() {
-        ASTNode node = new ASTNode("PIECE_LIST");
+    private PieceList parsePieceList() {
+        List<Piece> pieces = new ArrayList<>();
 
         do {
             if (match(TokenType.STRING)) {
-                String pieceType = previous().getValue().replaceAll("\"", "");
-                if (match(TokenType.INTEGER)) {
-                    int count = Integer.parseInt(previous().getValue());
-                    ASTNode pieceNode = new ASTNode("PIECE");
-                    pieceNode.addChild(new ASTNode("PIECE_TYPE", pieceType));
-                    pieceNode.addChild(new ASTNode("PIECE_COUNT", count));
-                    node.addChild(pieceNode);
+                String pieceType = previousValue().replaceAll("\"", "");
+                // Список уже пропущен до следующей команды
+                if (!expectInt()) {
+                    return new PieceList(pieces);
                 }
+                pieces.add(new Piece(pieceType, previousInt()));
             }
         } while (match(TokenType.COMMA));
 
-        if (!match(TokenType.RBRACKET)) {
-            System.err.println("Expected ']' in piece list");
-        }
+        expectClosingBracket();
 
-        return node;
+        return new PieceList(pieces);
     }
 
     // Остатки
-    private ASTNode parseRemaindersDeclaration() {
-        ASTNode node = new ASTNode("REMAINDERS_DECLARATION");
-
-        if (previous().getType() == TokenType.DIVIDEND) {
-            if (match(TokenType.STRING) || match(TokenType.INTEGER)) {
-                node.addChild(new ASTNode("DIVIDEND", previous().getValue()));
-            }
-        }
-
-        if (previous().getType() == TokenType.DIVISOR || check(TokenType.DIVISOR)) {
-            if (match(TokenType.DIVISOR)) {
-                if (match(TokenType.INTEGER)) {
-                    node.addChild(new ASTNode("DIVISOR", Integer.parseInt(previous().getValue())));
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.REMAINDER || check(TokenType.REMAINDER)) {
-            if (match(TokenType.REMAINDER)) {
-                if (match(TokenType.INTEGER)) {
-                    node.addChild(new ASTNode("REMAINDER", Integer.parseInt(previous().getValue())));
-                }
-            }
-        }
-
-        return node;
+    private Declaration parseRemaindersDeclaration() {
+        return switch (previousType()) {
+            case DIVIDEND -> match(TokenType.STRING) || match(TokenType.INTEGER) || expect(TokenType.STRING, "STRING or INTEGER")
+                    ? new DividendDecl(previousValue()) : null;
+            case DIVISOR -> expectInt() ? new DivisorDecl(previousInt()) : null;
+            default -> expectInt() ? new RemainderDecl(previousInt()) : null;
+        };
     }
 
     // Делимости
-    private ASTNode parseDivisibilityDeclaration() {
-        ASTNode node = new ASTNode("DIVISIBILITY_DECLARATION");
-
-        if (previous().getType() == TokenType.NUMBER_LENGTH) {
-            if (match(TokenType.INTEGER)) {
-                node.addChild(new ASTNode("NUMBER_LENGTH", Integer.parseInt(previous().getValue())));
-            }
-        }
-
-        if (previous().getType() == TokenType.TRANSFORMATION || check(TokenType.TRANSFORMATION)) {
-            if (match(TokenType.TRANSFORMATION)) {
-                if (match(TokenType.LBRACKET)) {
-                    node.addChild(parseTransformationList());
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.INCREASES_BY_FACTOR ||
-                previous().getType() == TokenType.DECREASES_BY_FACTOR ||
-                previous().getType() == TokenType.UNCHANGED ||
-                previous().getType() == TokenType.INCREASES_BY ||
-                previous().getType() == TokenType.DECREASES_BY) {
-
-            TokenType conditionType = previous().getType();
-            ASTNode conditionNode = new ASTNode("DIVISIBILITY_CONDITION");
-            conditionNode.addChild(new ASTNode("CONDITION_TYPE", conditionType.toString()));
-
-            if (conditionType == TokenType.INCREASES_BY || conditionType == TokenType.DECREASES_BY) {
-                if (match(TokenType.INTEGER)) {
-                    conditionNode.addChild(new ASTNode("FACTOR", Integer.parseInt(previous().getValue())));
-                }
-            } else if (conditionType == TokenType.INCREASES_BY_FACTOR || conditionType == TokenType.DECREASES_BY_FACTOR) {
-                if (match(TokenType.INTEGER)) {
-                    conditionNode.addChild(new ASTNode("FACTOR", Integer.parseInt(previous().getValue())));
-                }
-            }
-
-            node.addChild(conditionNode);
-        }
-
-        return node;
+    private Declaration parseDivisibilityDeclaration() {
+        TokenType command = previousType();
+        return switch (command) {
+            case NUMBER_LENGTH -> expectInt() ? new NumberLengthDecl(previousInt()) : null;
+            case TRANSFORMATION -> expect(TokenType.LBRACKET, "'['") ? parseTransformationList() : null;
+            // У UNCHANGED множителя нет
+            case UNCHANGED -> new DivisibilityConditionDecl(command, OptionalInt.empty());
+            default -> new DivisibilityConditionDecl(command,
+                    matchInt() ? OptionalInt.of(previousInt()) : OptionalInt.empty());
+        };
     }
 
-    private ASTNode parseTransformationList() {
-        ASTNode node = new ASTNode("TRANSFORMATION_LIST");
+    private TransformationList parseTransformationList() {
+        List<String> transformations = new ArrayList<>();
 
         do {
             if (match(TokenType.STRING)) {
-                String transformation = previous().getValue().replaceAll("\"", "");
-                node.addChild(new ASTNode("TRANSFORMATION", transformation));
+                transformations.add(previousValue().replaceAll("\"", ""));
             }
         } while (match(TokenType.COMMA));
 
-        if (!match(TokenType.RBRACKET)) {
-            System.err.println("Expected ']' in transformation list");
-        }
+        expectClosingBracket();
 
-        return node;
+        return new TransformationList(transformations);
     }
 
     // Шары и урны
-    private ASTNode parseBallsDeclaration() {
-        ASTNode node = new ASTNode("BALLS_DECLARATION");
-
-        if (previous().getType() == TokenType.URN || check(TokenType.URN)) {
-            if (match(TokenType.URN)) {
-                node.addChild(new ASTNode("URN_NAME", previous().getValue()));
-            }
-        }
-
-        if (previous().getType() == TokenType.CONTENTS || check(TokenType.CONTENTS)) {
-            if (match(TokenType.CONTENTS)) {
-                if (match(TokenType.LBRACKET)) {
-                    node.addChild(parseUrnContents());
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.DRAW_SEQUENTIAL || check(TokenType.DRAW_SEQUENTIAL)) {
-            if (match(TokenType.DRAW_SEQUENTIAL)) {
-                node.addChild(new ASTNode("DRAW_TYPE", "SEQUENTIAL"));
-            }
-        }
-
-        if (previous().getType() == TokenType.DRAW_SIMULTANEOUS || check(TokenType.DRAW_SIMULTANEOUS)) {
-            if (match(TokenType.DRAW_SIMULTANEOUS)) {
-                node.addChild(new ASTNode("DRAW_TYPE", "SIMULTANEOUS"));
-            }
-        }
-
-        if (check(TokenType.DRAW_COUNT)) {
-            if (match(TokenType.DRAW_COUNT)) {
-                if (match(TokenType.INTEGER)) {
-                    node.addChild(new ASTNode("DRAW_COUNT", Integer.parseInt(previous().getValue())));
-                }
-            }
-        }
-
-        return node;
+    private Declaration parseBallsDeclaration() {
+        return switch (previousType()) {
+            // URN ["RED" 3, ...] — короткая запись для URN с CONTENTS
+            case URN -> match(TokenType.LBRACKET) ? parseUrnContents() : new UrnDecl(previousValue());
+            case CONTENTS -> expect(TokenType.LBRACKET, "'['") ? parseUrnContents() : null;
+            case DRAW_SEQUENTIAL -> new DrawTypeDecl(true);
+            case DRAW_SIMULTANEOUS -> new DrawTypeDecl(false);
+            default -> expectInt() ? new DrawCountDecl(previousInt()) : null;
+        };
     }
 
-    private ASTNode parseUrnContents() {
-        ASTNode node = new ASTNode("URN_CONTENTS");
+    private UrnContents parseUrnContents() {
+        List<Ball> balls = new ArrayList<>();
 
         do {
             if (match(TokenType.STRING)) {
-                String color = previous().getValue().replaceAll("\"", "");
-                if (match(TokenType.INTEGER)) {
-                    int count = Integer.parseInt(previous().getValue());
-                    ASTNode ballNode = new ASTNode("BALL_COLOR");
-                    ballNode.addChild(new ASTNode("COLOR", color));
-                    ballNode.addChild(new ASTNode("COUNT", count));
-                    node.addChild(ballNode);
+                String color = previousValue().replaceAll("\"", "");
+                // Список уже пропущен до следующей команды
+                if (!expectInt()) {
+                    return new UrnContents(balls);
                 }
+                balls.add(new Ball(color, previousInt()));
             }
         } while (match(TokenType.COMMA));
 
-        if (!match(TokenType.RBRACKET)) {
-            System.err.println("Expected ']' in urn contents");
-        }
+        expectClosingBracket();
 
-        return node;
+        return new UrnContents(balls);
     }
 
     // Уравнения
-    private ASTNode parseEquationsDeclaration() {
-        ASTNode node = new ASTNode("EQUATIONS_DECLARATION");
-
-        if (previous().getType() == TokenType.UNKNOWNS) {
-            if (match(TokenType.INTEGER)) {
-                node.addChild(new ASTNode("UNKNOWNS", Integer.parseInt(previous().getValue())));
-            }
-        }
-
-        if (previous().getType() == TokenType.COEFFICIENTS || check(TokenType.COEFFICIENTS)) {
-            if (match(TokenType.COEFFICIENTS)) {
-                if (match(TokenType.LBRACKET)) {
-                    node.addChild(parseCoefficientsList());
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.SUM || check(TokenType.SUM)) {
-            if (match(TokenType.SUM)) {
-                if (match(TokenType.INTEGER)) {
-                    node.addChild(new ASTNode("SUM", Integer.parseInt(previous().getValue())));
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.DOMAIN || check(TokenType.DOMAIN)) {
-            if (match(TokenType.DOMAIN)) {
-                if (match(TokenType.STRING)) {
-                    node.addChild(new ASTNode("DOMAIN", previous().getValue().replaceAll("\"", "")));
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.CONSTRAINTS || check(TokenType.CONSTRAINTS)) {
-            if (match(TokenType.CONSTRAINTS)) {
-                if (match(TokenType.LBRACKET)) {
-                    node.addChild(parseConstraintsList());
-                }
-            }
-        }
-
-        return node;
+    private Declaration parseEquationsDeclaration() {
+        return switch (previousType()) {
+            case UNKNOWNS -> expectInt() ? new UnknownsDecl(previousInt()) : null;
+            case COEFFICIENTS -> expect(TokenType.LBRACKET, "'['") ? parseCoefficientsList() : null;
+            case SUM -> expectInt() ? new SumDecl(previousInt()) : null;
+            case DOMAIN -> expect(TokenType.STRING, "STRING") ? new DomainDecl(previousValue().replaceAll("\"", "")) : null;
+            default -> expect(TokenType.LBRACKET, "'['") ? parseConstraintsList() : null;
+        };
     }
 
-    private ASTNode parseCoefficientsList() {
-        ASTNode node = new ASTNode("COEFFICIENTS_LIST");
+    private CoefficientList parseCoefficientsList() {
+        int[] coefficients = new int[8];
+        int count = 0;
 
         do {
-            if (match(TokenType.INTEGER)) {
-                node.addChild(new ASTNode("COEFFICIENT", Integer.parseInt(previous().getValue())));
+            if (matchInt()) {
+                if (count == coefficients.length) {
+                    coefficients = Arrays.copyOf(coefficients, count * 2);
+                }
+                coefficients[count++] = previousInt();
             }
         } while (match(TokenType.COMMA));
 
-        if (!match(TokenType.RBRACKET)) {
-            System.err.println("Expected ']' in coefficients list");
-        }
+        expectClosingBracket();
 
-        return node;
+        return new CoefficientList(Arrays.copyOf(coefficients, count));
     }
 
-    private ASTNode parseConstraintsList() {
-        ASTNode node = new ASTNode("CONSTRAINTS_LIST");
+    private ConstraintList parseConstraintsList() {
+        List<String> constraints = new ArrayList<>();
 
         do {
             if (match(TokenType.STRING)) {
-                String constraint = previous().getValue().replaceAll("\"", "");
-                node.addChild(new ASTNode("CONSTRAINT", constraint));
+                constraints.add(previousValue().replaceAll("\"", ""));
             }
         } while (match(TokenType.COMMA));
 
-        if (!match(TokenType.RBRACKET)) {
-            System.err.println("Expected ']' in constraints list");
-        }
+        expectClosingBracket();
 
-        return node;
+        return new ConstraintList(constraints);
     }
 
     // Числа
-    private ASTNode parseNumbersDeclaration() {
-        ASTNode node = new ASTNode("NUMBERS_DECLARATION");
-
-        if (previous().getType() == TokenType.DIGITS) {
-            if (match(TokenType.INTEGER)) {
-                node.addChild(new ASTNode("DIGITS", Integer.parseInt(previous().getValue())));
-            }
-        }
-
-        if (previous().getType() == TokenType.DISTINCT || check(TokenType.DISTINCT)) {
-            if (match(TokenType.DISTINCT)) {
-                if (match(TokenType.BOOLEAN)) {
-                    String boolValue = previous().getValue().toUpperCase();
-                    node.addChild(new ASTNode("DISTINCT", "YES".equals(boolValue) || "TRUE".equals(boolValue)));
-                } else {
-                    node.addChild(new ASTNode("DISTINCT", true));
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.ADJACENT_DIFFERENT || check(TokenType.ADJACENT_DIFFERENT)) {
-            if (match(TokenType.ADJACENT_DIFFERENT)) {
-                if (match(TokenType.BOOLEAN)) {
-                    String boolValue = previous().getValue().toUpperCase();
-                    node.addChild(new ASTNode("ADJACENT_DIFFERENT", "YES".equals(boolValue) || "TRUE".equals(boolValue)));
-                } else {
-                    node.addChild(new ASTNode("ADJACENT_DIFFERENT", true));
-                }
-            }
-        }
-
-        if (previous().getType() == TokenType.INCREASING ||
-                previous().getType() == TokenType.NON_DECREASING ||
-                previous().getType() == TokenType.DECREASING ||
-                previous().getType() == TokenType.NON_INCREASING) {
-
-            node.addChild(new ASTNode("ORDER", previous().getValue()));
-        }
-
-        return node;
+    private Declaration parseNumbersDeclaration() {
+        return switch (previousType()) {
+            case DIGITS -> expectInt() ? new DigitsDecl(previousInt()) : null;
+            case DISTINCT -> new DistinctDecl(!match(TokenType.BOOLEAN) || previousBoolean());
+            case ADJACENT_DIFFERENT -> new AdjacentDifferentDecl(!match(TokenType.BOOLEAN) || previousBoolean());
+            default -> new OrderDecl(previousType().name());
+        };
     }
 
     // Вспомогательные методы
@@ -647,53 +443,102 @@ public class CDSLParser {
 
     private boolean check(TokenType type) {
         if (isAtEnd()) return false;
-        return peek().getType() == type;
+        return tokens.type(0) == type;
     }
 
-    private Token advance() {
-        if (!isAtEnd()) current++;
-        return previous();
+    private void advance() {
+        if (!isAtEnd()) tokens.advance();
     }
 
     private boolean isAtEnd() {
-        return peek().getType() == TokenType.EOF;
+        return tokens.type(0) == TokenType.EOF;
+    }
+
+    private String peekValue() {
+        return tokens.value(0);
     }
 
-    private Token peek() {
-        return tokens.get(current);
+    private TokenType previousType() {
+        return tokens.type(-1);
     }
 
-    private Token previous() {
-        return tokens.get(current - 1);
+    private String previousValue() {
+        return tokens.value(-1);
+    }
+
+    private int previousInt() {
+        return tokens.intValue(-1);
+    }
+
+    private boolean previousBoolean() {
+        String value = previousValue().toUpperCase();
+        return "YES".equals(value) || "TRUE".equals(value);
     }
 
     private boolean checkCardComponents() {
-        int savePos = current;
-        try {
-            return (check(TokenType.RANK) || check(TokenType.ACE) || check(TokenType.KING) ||
-                    check(TokenType.QUEEN) || check(TokenType.JACK) || check(TokenType.INTEGER)) &&
-                    (checkNext(TokenType.HEARTS) || checkNext(TokenType.DIAMONDS) ||
-                            checkNext(TokenType.CLUBS) || checkNext(TokenType.SPADES));
-        } finally {
-            current = savePos;
-        }
+        return (check(TokenType.RANK) || check(TokenType.ACE) || check(TokenType.KING) ||
+                check(TokenType.QUEEN) || check(TokenType.JACK) || check(TokenType.INTEGER)) &&
+                (checkNext(TokenType.HEARTS) || checkNext(TokenType.DIAMONDS) ||
+                        checkNext(TokenType.CLUBS) || checkNext(TokenType.SPADES));
     }
 
     private boolean checkNext(TokenType type) {
-        if (current + 1 >= tokens.size()) return false;
-        return tokens.get(current + 1).getType() == type;
+        return tokens.type(1) == type;
     }
 
     private boolean isNextCommand() {
-        return check(TokenType.DECK) || check(TokenType.ALPHABET) || check(TokenType.LENGTH) ||
-                check(TokenType.UNIQUE) || check(TokenType.TARGET) || check(TokenType.DRAW) ||
-                check(TokenType.CONDITION) || check(TokenType.CALCULATE) ||
-                check(TokenType.BOARD_HEIGHT) || check(TokenType.BOARD_WIDTH) || check(TokenType.PIECES) ||
-                check(TokenType.DIVIDEND) || check(TokenType.DIVISOR) || check(TokenType.REMAINDER) ||
-                check(TokenType.NUMBER_LENGTH) || check(TokenType.TRANSFORMATION) ||
-                check(TokenType.URN) || check(TokenType.CONTENTS) ||
-                check(TokenType.UNKNOWNS) || check(TokenType.COEFFICIENTS) || check(TokenType.SUM) ||
-                check(TokenType.DIGITS) || check(TokenType.DISTINCT);
+        return COMMANDS.contains(tokens.type(0));
+    }
+
+    // Восстановление после ошибки: пропуск до ближайшей команды или конца входа
+    private void synchronize() {
+        while (!isAtEnd() && !isNextCommand()) {
+            advance();
+        }
+    }
+
+    // Обязательный токен; при его отсутствии — ошибка и пропуск до следующей команды
+    private boolean expect(TokenType type, String expected) {
+        if (match(type)) {
+            return true;
+        }
+        error(expected);
+        synchronize();
+        return false;
+    }
+
+    private boolean expectInt() {
+        if (!check(TokenType.INTEGER)) {
+            error("INTEGER");
+        } else if (matchInt()) {
+            return true;
+        }
+        synchronize();
+        return false;
+    }
+
+    // Необязательное целое: переполнение записывается как ошибка, токен всё равно поглощается
+    private boolean matchInt() {
+        if (!match(TokenType.INTEGER)) {
+            return false;
+        }
+        if (previousInt() < 0) {
+            diagnostics.error(tokens.line(-1), tokens.column(-1), "integer up to " + Integer.MAX_VALUE, previousValue());
+            return false;
+        }
+        return true;
+    }
+
+    private void expectClosingBracket() {
+        expect(TokenType.RBRACKET, "']'");
+    }
+
+    private void error(String expected) {
+        diagnostics.error(tokens.line(0), tokens.column(0), expected, found());
+    }
+
+    private String found() {
+        return isAtEnd() ? "EOF" : peekValue();
     }
 
     private String normalizeRank(String rank) {
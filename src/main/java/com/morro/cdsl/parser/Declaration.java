@@ -0,0 +1,180 @@
+package com.morro.cdsl.parser;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.tokenizer.TokenType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Объявление верхнего уровня программы CDSL. Каждая запись соответствует одной
+ * команде языка и хранит уже разобранные значения, поэтому интерпретатор
+ * разбирает их сопоставлением с образцом, без строковых имён и приведения типов.
+ * Записи неизменяемы, разобранную программу можно разделять между потоками.
+ */
+public sealed interface Declaration {
+
+    // type == null — тип задачи не распознан, объявление лишь отмечает начало блока
+    record TaskDecl(ProblemType type, String name) implements Declaration {
+    }
+
+    record DeckDecl(String deckType, int size) implements Declaration {
+    }
+
+    record AlphabetDecl(String alphabet) implements Declaration {
+    }
+
+    record LengthDecl(int length) implements Declaration {
+    }
+
+    record UniqueDecl(boolean unique) implements Declaration {
+    }
+
+    // atLeast — TARGET AT_LEAST: карты задают профиль руки, а не конкретный набор
+    record TargetList(List<Target> targets, boolean atLeast) implements Declaration {
+        public TargetList {
+            targets = List.copyOf(targets);
+        }
+    }
+
+    record DrawDecl(int count, boolean withReplacement) implements Declaration {
+    }
+
+    record ConditionDecl(String expression) implements Declaration {
+    }
+
+    record CalculateDecl(String calculationType) implements Declaration {
+    }
+
+    // Шахматы
+    record BoardHeightDecl(int height) implements Declaration {
+    }
+
+    record BoardWidthDecl(int width) implements Declaration {
+    }
+
+    record PieceList(List<Piece> pieces) implements Declaration {
+        public PieceList {
+            pieces = List.copyOf(pieces);
+        }
+    }
+
+    record AttackingDecl(boolean attacking) implements Declaration {
+    }
+
+    // Остатки
+    record DividendDecl(String dividend) implements Declaration {
+    }
+
+    record DivisorDecl(int divisor) implements Declaration {
+    }
+
+    record RemainderDecl(int remainder) implements Declaration {
+    }
+
+    // Делимости
+    record NumberLengthDecl(int length) implements Declaration {
+    }
+
+    record TransformationList(List<String> transformations) implements Declaration {
+        public TransformationList {
+            transformations = List.copyOf(transformations);
+        }
+    }
+
+    record DivisibilityConditionDecl(TokenType kind, OptionalInt factor) implements Declaration {
+    }
+
+    // Шары и урны
+    record UrnDecl(String name) implements Declaration {
+    }
+
+    record UrnContents(List<Ball> balls) implements Declaration {
+        public UrnContents {
+            balls = List.copyOf(balls);
+        }
+    }
+
+    record DrawTypeDecl(boolean sequential) implements Declaration {
+    }
+
+    record DrawCountDecl(int count) implements Declaration {
+    }
+
+    // Уравнения
+    record UnknownsDecl(int unknowns) implements Declaration {
+    }
+
+    record CoefficientList(int[] coefficients) implements Declaration {
+        // Массив копируется на входе и выходе — объявление остаётся неизменяемым
+        public CoefficientList {
+            coefficients = coefficients.clone();
+        }
+
+        @Override
+        public int[] coefficients() {
+            return coefficients.clone();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CoefficientList other && Arrays.equals(coefficients, other.coefficients);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(coefficients);
+        }
+
+        @Override
+        public String toString() {
+            return "CoefficientList[coefficients=" + Arrays.toString(coefficients) + "]";
+        }
+    }
+
+    record SumDecl(int sum) implements Declaration {
+    }
+
+    record DomainDecl(String domain) implements Declaration {
+    }
+
+    record ConstraintList(List<String> constraints) implements Declaration {
+        public ConstraintList {
+            constraints = List.copyOf(constraints);
+        }
+    }
+
+    // Числа
+    record DigitsDecl(int digits) implements Declaration {
+    }
+
+    record DistinctDecl(boolean distinct) implements Declaration {
+    }
+
+    record AdjacentDifferentDecl(boolean adjacentDifferent) implements Declaration {
+    }
+
+    record OrderDecl(String order) implements Declaration {
+    }
+
+    // Элементы списков
+    sealed interface Target {
+    }
+
+    record CardTarget(String rank, String suit) implements Target {
+    }
+
+    record ConditionTarget(String condition) implements Target {
+    }
+
+    // "RED" 2 — столько шаров цвета среди вытянутых
+    record ColorTarget(String color, int count) implements Target {
+    }
+
+    record Piece(String type, int count) {
+    }
+
+    record Ball(String color, int count) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.morro.cdsl.parser;
+
+// Сообщение парсера: что ожидалось и что встретилось в позиции line:column
+public record Diagnostic(Severity severity, int line, int column, String expected, String found) {
+
+    public enum Severity {
+        WARNING, ERROR
+    }
+
+    // Та же ошибка после сдвига строк документа
+    public Diagnostic moved(int lines) {
+        return lines == 0 ? this : new Diagnostic(severity, line + lines, column, expected, found);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %d:%d: expected %s, found %s", severity, line, column, expected, found);
+    }
+}
@@ -0,0 +1,30 @@
+package com.morro.cdsl.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Накопитель сообщений парсера. Ошибки не выбрасываются и не печатаются —
+ * они записываются сюда и отдаются вместе с результатом разбора.
+ */
+public final class Diagnostics {
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private int errorCount;
+
+    void error(int line, int column, String expected, String found) {
+        diagnostics.add(new Diagnostic(Diagnostic.Severity.ERROR, line, column, expected, found));
+        errorCount++;
+    }
+
+    void warning(int line, int column, String expected, String found) {
+        diagnostics.add(new Diagnostic(Diagnostic.Severity.WARNING, line, column, expected, found));
+    }
+
+    public boolean hasErrors() { return errorCount > 0; }
+    public int size() { return diagnostics.size(); }
+
+    public List<Diagnostic> list() {
+        return Collections.unmodifiableList(diagnostics);
+    }
+}
@@ -0,0 +1,21 @@
+package com.morro.cdsl.parser;
+
+import java.util.List;
+
+// Результат разбора: объявления верхнего уровня в порядке следования и сообщения парсера
+public record Program(List<Declaration> declarations, List<Diagnostic> diagnostics) {
+
+    public Program {
+        declarations = List.copyOf(declarations);
+        diagnostics = List.copyOf(diagnostics);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PROGRAM\n");
+        for (Declaration declaration : declarations) {
+            sb.append("  ").append(declaration).append("\n");
+        }
+        return sb.toString();
+    }
+}
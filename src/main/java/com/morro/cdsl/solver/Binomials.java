@@ -0,0 +1,94 @@
+package com.morro.cdsl.solver;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Биномиальные коэффициенты для решателей. До n = 66 все C(n, k) помещаются в long и берутся
+ * из треугольника Паскаля; дальше — из таблицы факториалов в BigInteger, которая растёт по мере
+ * надобности и общая для всего процесса. Для очень больших n считается произведением
+ * по min(k, n - k) множителям, без факториалов.
+ */
+public final class Binomials {
+    // C(67, 33) уже не помещается в long
+    public static final int LONG_ROWS = 67;
+    private static final int FACTORIAL_LIMIT = 4096;
+
+    private static final long[][] PASCAL = new long[LONG_ROWS][];
+    private static volatile BigInteger[] factorials = {BigInteger.ONE};
+
+    static {
+        for (int n = 0; n < LONG_ROWS; n++) {
+            PASCAL[n] = new long[n + 1];
+            PASCAL[n][0] = PASCAL[n][n] = 1;
+            for (int k = 1; k < n; k++) {
+                PASCAL[n][k] = PASCAL[n - 1][k - 1] + PASCAL[n - 1][k];
+            }
+        }
+    }
+
+    private Binomials() {
+    }
+
+    // -1 — результат не помещается в long; вне 0 <= k <= n коэффициент равен нулю
+    public static long binomialLong(int n, int k) {
+        if (k < 0 || n < 0 || k > n) {
+            return 0;
+        }
+        return n < LONG_ROWS ? PASCAL[n][k] : -1;
+    }
+
+    public static BigInteger binomial(int n, int k) {
+        if (k < 0 || n < 0 || k > n) {
+            return BigInteger.ZERO;
+        }
+        if (n < LONG_ROWS) {
+            return BigInteger.valueOf(PASCAL[n][k]);
+        }
+        if (n <= FACTORIAL_LIMIT) {
+            BigInteger[] table = factorials(n);
+            return table[n].divide(table[k].multiply(table[n - k]));
+        }
+        k = Math.min(k, n - k);
+        BigInteger result = BigInteger.ONE;
+        for (int i = 1; i <= k; i++) {
+            // После каждого шага result = C(n - k + i, i), деление точное
+            result = result.multiply(BigInteger.valueOf(n - k + i)).divide(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    public static BigInteger factorial(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Negative factorial: " + n);
+        }
+        if (n <= FACTORIAL_LIMIT) {
+            return factorials(n)[n];
+        }
+        BigInteger result = factorials(FACTORIAL_LIMIT)[FACTORIAL_LIMIT];
+        for (int i = FACTORIAL_LIMIT + 1; i <= n; i++) {
+            result = result.multiply(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    private static BigInteger[] factorials(int n) {
+        BigInteger[] table = factorials;
+        if (table.length > n) {
+            return table;
+        }
+        synchronized (Binomials.class) {
+            table = factorials;
+            if (table.length <= n) {
+                // Растём с запасом, чтобы соседние запросы не пересоздавали таблицу
+                int size = Math.min(FACTORIAL_LIMIT + 1, Math.max(n + 1, table.length * 2));
+                BigInteger[] grown = Arrays.copyOf(table, size);
+                for (int i = table.length; i < size; i++) {
+                    grown[i] = grown[i - 1].multiply(BigInteger.valueOf(i));
+                }
+                factorials = table = grown;
+            }
+            return table;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.morro.cdsl.solver;
+
+// Оценка вероятности моделированием: hits успехов из samples испытаний
+// и доверительный интервал Уилсона [low, high] с уровнем confidence
+public record Estimate(long hits, long samples, double low, double high, double confidence) {
+
+    public double value() {
+        return samples == 0 ? 0 : (double) hits / samples;
+    }
+
+    public double width() {
+        return high - low;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.6f, %.0f%% CI [%.6f, %.6f], %d samples", value(), confidence * 100, low, high, samples);
+    }
+}
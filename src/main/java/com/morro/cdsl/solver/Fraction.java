@@ -0,0 +1,133 @@
+package com.morro.cdsl.solver;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Точное рациональное число в несократимом виде, знаменатель всегда положителен.
+ * Результаты решателей возвращаются дробями: вероятность — p/q, число вариантов — n/1.
+ */
+public final class Fraction implements Comparable<Fraction> {
+    public static final Fraction ZERO = new Fraction(BigInteger.ZERO, BigInteger.ONE);
+    public static final Fraction ONE = new Fraction(BigInteger.ONE, BigInteger.ONE);
+
+    private final BigInteger numerator;
+    private final BigInteger denominator;
+
+    private Fraction(BigInteger numerator, BigInteger denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    public static Fraction of(long numerator, long denominator) {
+        if (denominator == 0) {
+            throw new ArithmeticException("Zero denominator");
+        }
+        // Сокращение в long, пока оба числа помещаются; Long.MIN_VALUE уходит в BigInteger
+        if (numerator != Long.MIN_VALUE && denominator != Long.MIN_VALUE) {
+            long gcd = gcd(Math.abs(numerator), Math.abs(denominator));
+            if (denominator < 0) {
+                gcd = -gcd;
+            }
+            return new Fraction(BigInteger.valueOf(numerator / gcd), BigInteger.valueOf(denominator / gcd));
+        }
+        return of(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+
+    public static Fraction of(BigInteger numerator, BigInteger denominator) {
+        if (denominator.signum() == 0) {
+            throw new ArithmeticException("Zero denominator");
+        }
+        BigInteger gcd = numerator.gcd(denominator);
+        if (denominator.signum() < 0) {
+            gcd = gcd.negate();
+        }
+        return new Fraction(numerator.divide(gcd), denominator.divide(gcd));
+    }
+
+    public static Fraction valueOf(long value) {
+        return new Fraction(BigInteger.valueOf(value), BigInteger.ONE);
+    }
+
+    public static Fraction valueOf(BigInteger value) {
+        return new Fraction(value, BigInteger.ONE);
+    }
+
+    public BigInteger numerator() {
+        return numerator;
+    }
+
+    public BigInteger denominator() {
+        return denominator;
+    }
+
+    public boolean isInteger() {
+        return denominator.equals(BigInteger.ONE);
+    }
+
+    public int signum() {
+        return numerator.signum();
+    }
+
+    public Fraction add(Fraction other) {
+        if (denominator.equals(other.denominator)) {
+            return of(numerator.add(other.numerator), denominator);
+        }
+        return of(numerator.multiply(other.denominator).add(other.numerator.multiply(denominator)),
+                denominator.multiply(other.denominator));
+    }
+
+    public Fraction subtract(Fraction other) {
+        return add(other.negate());
+    }
+
+    public Fraction multiply(Fraction other) {
+        return of(numerator.multiply(other.numerator), denominator.multiply(other.denominator));
+    }
+
+    public Fraction divide(Fraction other) {
+        return of(numerator.multiply(other.denominator), denominator.multiply(other.numerator));
+    }
+
+    public Fraction negate() {
+        return new Fraction(numerator.negate(), denominator);
+    }
+
+    public double doubleValue() {
+        if (numerator.bitLength() < 53 && denominator.bitLength() < 53) {
+            return numerator.doubleValue() / denominator.doubleValue();
+        }
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), MathContext.DECIMAL64).doubleValue();
+    }
+
+    @Override
+    public int compareTo(Fraction other) {
+        return numerator.multiply(other.denominator).compareTo(other.numerator.multiply(denominator));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Fraction other
+                && numerator.equals(other.numerator) && denominator.equals(other.denominator);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * numerator.hashCode() + denominator.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return isInteger() ? numerator.toString() : numerator + "/" + denominator;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a == 0 ? 1 : a;
+    }
+}
@@ -0,0 +1,143 @@
+package com.morro.cdsl.solver;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Параллельное моделирование с остановкой по ширине доверительного интервала.
+ *
+ * Испытания идут раундами. Раунд делится на куски, у каждого куска свой генератор
+ * SplittableRandom (отщеплён от начального один раз) и своё испытание со своими массивами,
+ * так что в цикле испытаний нет ни выделений памяти, ни общих данных. После раунда
+ * пересчитывается интервал Уилсона; моделирование останавливается, когда его ширина
+ * не больше заданной или испытаний набралось maxSamples. При одном и том же seed
+ * результат не зависит от числа потоков и их расписания.
+ */
+public final class MonteCarlo {
+    public static final Settings DEFAULTS = new Settings(0.005, 0.95, 50_000_000L, 0x5EEDL);
+
+    // Число кусков не зависит от пула — от него зависит только, сколько кусков идёт одновременно
+    private static final int CHUNKS = 64;
+    private static final int SAMPLES_PER_CHUNK = 2048;
+
+    // width — нужная ширина интервала, confidence — его уровень
+    public record Settings(double width, double confidence, long maxSamples, long seed) {
+        public Settings {
+            if (width <= 0 || confidence <= 0 || confidence >= 1 || maxSamples <= 0) {
+                throw new IllegalArgumentException("Invalid Monte Carlo settings: width " + width
+                        + ", confidence " + confidence + ", max samples " + maxSamples);
+            }
+        }
+    }
+
+    // Одно испытание; экземпляр принадлежит одному куску и может хранить свои массивы
+    public interface Trial {
+        boolean run(SplittableRandom random);
+    }
+
+    private MonteCarlo() {
+    }
+
+    public static Estimate estimate(Supplier<? extends Trial> trials, Settings settings, ForkJoinPool pool) {
+        int chunks = CHUNKS;
+        Trial[] trial = new Trial[chunks];
+        SplittableRandom[] random = new SplittableRandom[chunks];
+        SplittableRandom root = new SplittableRandom(settings.seed());
+        for (int i = 0; i < chunks; i++) {
+            trial[i] = trials.get();
+            random[i] = root.split();
+        }
+
+        double z = quantile(settings.confidence());
+        long[] hits = new long[chunks];
+        long samples = 0;
+        long total = 0;
+        while (true) {
+            long round = Math.min((long) chunks * SAMPLES_PER_CHUNK, settings.maxSamples() - samples);
+            int perChunk = (int) (round / chunks);
+            int extra = (int) (round % chunks);
+            pool.invoke(new Round(trial, random, hits, perChunk, extra, 0, chunks));
+            samples += round;
+
+            total = 0;
+            for (long h : hits) {
+                total += h;
+            }
+            double[] interval = wilson(total, samples, z);
+            if (interval[1] - interval[0] <= settings.width() || samples >= settings.maxSamples()) {
+                return new Estimate(total, samples, interval[0], interval[1], settings.confidence());
+            }
+        }
+    }
+
+    static double[] wilson(long hits, long samples, double z) {
+        double p = (double) hits / samples;
+        double z2 = z * z / samples;
+        double center = (p + z2 / 2) / (1 + z2);
+        double half = z / (1 + z2) * Math.sqrt(p * (1 - p) / samples + z2 / (4 * samples));
+        return new double[]{Math.max(0, center - half), Math.min(1, center + half)};
+    }
+
+    // Квантиль стандартного нормального распределения уровня (1 + confidence) / 2 (приближение Акклама)
+    static double quantile(double confidence) {
+        double p = (1 + confidence) / 2;
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+        if (p > 0.97575) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    private static final class Round extends RecursiveAction {
+        private final Trial[] trial;
+        private final SplittableRandom[] random;
+        private final long[] hits;
+        private final int perChunk;
+        private final int extra;
+        private final int from;
+        private final int to;
+
+        Round(Trial[] trial, SplittableRandom[] random, long[] hits, int perChunk, int extra, int from, int to) {
+            this.trial = trial;
+            this.random = random;
+            this.hits = hits;
+            this.perChunk = perChunk;
+            this.extra = extra;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Round(trial, random, hits, perChunk, extra, from, middle),
+                        new Round(trial, random, hits, perChunk, extra, middle, to));
+                return;
+            }
+            Trial t = trial[from];
+            SplittableRandom r = random[from];
+            int samples = perChunk + (from < extra ? 1 : 0);
+            long h = 0;
+            for (int i = 0; i < samples; i++) {
+                if (t.run(r)) {
+                    h++;
+                }
+            }
+            hits[from] += h;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.morro.cdsl.solver;
+
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ProblemSpec;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Решатель, который не вычисляет ответ точно, а оценивает вероятность моделированием.
+ * Движок вызывает estimate() и кладёт оценку в Solution; значением решения становится
+ * доля успехов hits / samples. Такие решатели регистрируются после точных и берут
+ * PROBABILITY, только если точный решатель не нашёлся; CALCULATE SIMULATION выбирает их всегда.
+ */
+public interface ProblemEstimator<S extends ProblemSpec> extends ProblemSolver<S> {
+
+    Estimate estimate(S spec, ForkJoinPool pool);
+
+    @Override
+    default Fraction solve(S spec, Calculation calculation, ForkJoinPool pool) {
+        Estimate estimate = estimate(spec, pool);
+        return Fraction.of(estimate.hits(), estimate.samples());
+    }
+}
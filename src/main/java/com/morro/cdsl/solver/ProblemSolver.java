@@ -0,0 +1,29 @@
+package com.morro.cdsl.solver;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ProblemSpec;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Решатель задач одного типа. Реализации регистрируются в SolverEngine явно или через
+ * ServiceLoader (META-INF/services/com.morro.cdsl.solver.ProblemSolver). На один тип можно
+ * зарегистрировать несколько решателей: движок берёт первый, который согласен решать задачу,
+ * поэтому точные решатели регистрируются раньше приближённых.
+ *
+ * Реализации не хранят состояния между вызовами и могут вызываться из нескольких потоков.
+ */
+public interface ProblemSolver<S extends ProblemSpec> {
+
+    ProblemType type();
+
+    Class<S> specType();
+
+    // false — решатель не умеет такую задачу или такую величину, движок попробует следующий
+    boolean supports(S spec, Calculation calculation);
+
+    // Некорректная задача (например, вытянуть больше карт, чем в колоде) — IllegalArgumentException.
+    // Пул общий для движка: в нём решатель может распараллелить перебор
+    Fraction solve(S spec, Calculation calculation, ForkJoinPool pool);
+}
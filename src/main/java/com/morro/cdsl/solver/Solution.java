@@ -0,0 +1,23 @@
+package com.morro.cdsl.solver;
+
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ProblemSpec;
+
+// Ответ вместе с тем, кто и за сколько его получил. estimate == null — ответ точный,
+// иначе value — доля успехов моделирования, а estimate — её доверительный интервал
+public record Solution(ProblemSpec spec, Calculation calculation, Fraction value, Estimate estimate,
+                       String solver, long nanos) {
+
+    public boolean exact() {
+        return estimate == null;
+    }
+
+    @Override
+    public String toString() {
+        if (estimate != null) {
+            return String.format("%s ≈ %s [%s, %d µs]", calculation, estimate, solver, nanos / 1000);
+        }
+        String approx = value.isInteger() ? "" : String.format(" (%.6g)", value.doubleValue());
+        return String.format("%s = %s%s [%s, %d µs]", calculation, value, approx, solver, nanos / 1000);
+    }
+}
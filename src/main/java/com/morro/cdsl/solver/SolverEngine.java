@@ -0,0 +1,140 @@
+package com.morro.cdsl.solver;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.balls.BallsSolver;
+import com.morro.cdsl.solver.balls.MonteCarloBallsSolver;
+import com.morro.cdsl.solver.cards.CardsSolver;
+import com.morro.cdsl.solver.cards.MonteCarloCardsSolver;
+import com.morro.cdsl.solver.cards.PokerSolver;
+import com.morro.cdsl.solver.cards.ProfileCardsSolver;
+import com.morro.cdsl.solver.chess.PlacementSolver;
+import com.morro.cdsl.solver.chess.QueensSolver;
+import com.morro.cdsl.solver.chess.RookBishopSolver;
+import com.morro.cdsl.solver.chess.RowProfileSolver;
+import com.morro.cdsl.solver.chess.SymmetrySolver;
+import com.morro.cdsl.solver.words.WordsSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ProblemSpec;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Вычисление величины CALCULATE по спецификации задачи. Решатель выбирается по типу задачи
+ * и величине; движок замеряет время и возвращает точный ответ дробью, а если задачу взял
+ * только ProblemEstimator — оценку моделированием с доверительным интервалом. Набор решателей
+ * задаётся при создании и дальше не меняется, так что движок разделяется между потоками.
+ */
+public final class SolverEngine {
+    private static final SolverEngine SHARED = new SolverEngine(ForkJoinPool.commonPool(), installedSolvers());
+
+    private final ForkJoinPool pool;
+    private final Map<ProblemType, List<ProblemSolver<?>>> solvers = new EnumMap<>(ProblemType.class);
+
+    public SolverEngine(ForkJoinPool pool, List<? extends ProblemSolver<?>> solvers) {
+        this.pool = pool;
+        for (ProblemSolver<?> solver : solvers) {
+            this.solvers.computeIfAbsent(solver.type(), type -> new ArrayList<>()).add(solver);
+        }
+    }
+
+    // Встроенные решатели и найденные через ServiceLoader, в общем ForkJoinPool
+    public static SolverEngine shared() {
+        return SHARED;
+    }
+
+    public static List<ProblemSolver<?>> installedSolvers() {
+        List<ProblemSolver<?>> solvers = new ArrayList<>(List.of(
+                new CardsSolver(), new ProfileCardsSolver(), new PokerSolver(), new MonteCarloCardsSolver(),
+                new BallsSolver(), new MonteCarloBallsSolver(), new WordsSolver(),
+                new RookBishopSolver(), new RowProfileSolver(), new QueensSolver(), new PlacementSolver(),
+                new SymmetrySolver()));
+        for (ProblemSolver<?> solver : ServiceLoader.load(ProblemSolver.class)) {
+            solvers.add(solver);
+        }
+        return solvers;
+    }
+
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+    // Без CALCULATE считается вероятность — как и в языке по умолчанию
+    public Solution solve(ProblemSpec spec) {
+        return solve(spec, spec.calculation() != null ? spec.calculation() : Calculation.PROBABILITY);
+    }
+
+    public Solution solve(ProblemSpec spec, Calculation calculation) {
+        ProblemSolver<?> solver = find(spec, calculation);
+        if (solver == null) {
+            throw new UnsupportedOperationException("No solver for " + spec.type() + " " + calculation);
+        }
+        return timed(solver, spec, calculation);
+    }
+
+    // Решение заданным решателем, в обход выбора по порядку регистрации
+    public Solution solve(ProblemSpec spec, Calculation calculation, ProblemSolver<?> solver) {
+        if (solver.type() != spec.type() || !accepts(solver, spec, calculation)) {
+            throw new UnsupportedOperationException(solver.getClass().getSimpleName()
+                    + " does not solve " + spec.type() + " " + calculation);
+        }
+        return timed(solver, spec, calculation);
+    }
+
+    public boolean canSolve(ProblemSpec spec) {
+        return find(spec, spec.calculation() != null ? spec.calculation() : Calculation.PROBABILITY) != null;
+    }
+
+    public CompletableFuture<Solution> solveAsync(ProblemSpec spec) {
+        return CompletableFuture.supplyAsync(() -> solve(spec), pool);
+    }
+
+    // Задачи решаются параллельно в пуле движка; ошибка одной задачи не мешает остальным
+    public List<CompletableFuture<Solution>> solveAll(List<? extends ProblemSpec> specs) {
+        List<CompletableFuture<Solution>> results = new ArrayList<>(specs.size());
+        for (ProblemSpec spec : specs) {
+            results.add(solveAsync(spec));
+        }
+        return results;
+    }
+
+    private Solution timed(ProblemSolver<?> solver, ProblemSpec spec, Calculation calculation) {
+        long start = System.nanoTime();
+        Estimate estimate = solver instanceof ProblemEstimator<?> estimator ? estimate(estimator, spec) : null;
+        Fraction value = estimate != null
+                ? Fraction.of(estimate.hits(), estimate.samples())
+                : run(solver, spec, calculation);
+        long nanos = System.nanoTime() - start;
+        return new Solution(spec, calculation, value, estimate, solver.getClass().getSimpleName(), nanos);
+    }
+
+    private <S extends ProblemSpec> Estimate estimate(ProblemEstimator<S> estimator, ProblemSpec spec) {
+        return estimator.estimate(estimator.specType().cast(spec), pool);
+    }
+
+    private ProblemSolver<?> find(ProblemSpec spec, Calculation calculation) {
+        if (spec.type() == null) {
+            return null;
+        }
+        for (ProblemSolver<?> solver : solvers.getOrDefault(spec.type(), List.of())) {
+            if (accepts(solver, spec, calculation)) {
+                return solver;
+            }
+        }
+        return null;
+    }
+
+    private static <S extends ProblemSpec> boolean accepts(ProblemSolver<S> solver, ProblemSpec spec,
+                                                           Calculation calculation) {
+        return solver.specType().isInstance(spec) && solver.supports(solver.specType().cast(spec), calculation);
+    }
+
+    private <S extends ProblemSpec> Fraction run(ProblemSolver<S> solver, ProblemSpec spec, Calculation calculation) {
+        return solver.solve(solver.specType().cast(spec), calculation, pool);
+    }
+}
@@ -0,0 +1,178 @@
+package com.morro.cdsl.solver;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Возведение матрицы переходов в степень повторным возведением в квадрат: вектор начальных
+ * состояний умножается на matrix^exponent за O(s³ log n) вместо n шагов динамики.
+ * Три варианта арифметики: по модулю в примитивных long, точно в BigInteger и в логарифмах
+ * для оценки порядка огромных чисел.
+ */
+public final class TransferMatrix {
+    // Произведение двух вычетов меньше 2^62, сумма не переполняется при приведении на каждом шаге
+    public static final long MAX_MODULUS = Integer.MAX_VALUE;
+
+    private TransferMatrix() {
+    }
+
+    public static long[] applyMod(long[] vector, long[][] matrix, long exponent, long modulus) {
+        if (modulus <= 0 || modulus > MAX_MODULUS) {
+            throw new IllegalArgumentException("Modulus out of range: " + modulus);
+        }
+        long[] result = new long[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = Math.floorMod(vector[i], modulus);
+        }
+        long[][] power = new long[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            power[i] = new long[matrix[i].length];
+            for (int j = 0; j < matrix[i].length; j++) {
+                power[i][j] = Math.floorMod(matrix[i][j], modulus);
+            }
+        }
+        for (long e = exponent; e > 0; e >>>= 1) {
+            if ((e & 1) != 0) {
+                result = multiplyMod(result, power, modulus);
+            }
+            if (e > 1) {
+                power = squareMod(power, modulus);
+            }
+        }
+        return result;
+    }
+
+    public static BigInteger[] apply(BigInteger[] vector, BigInteger[][] matrix, long exponent) {
+        BigInteger[] result = vector.clone();
+        BigInteger[][] power = matrix;
+        for (long e = exponent; e > 0; e >>>= 1) {
+            if ((e & 1) != 0) {
+                result = multiply(result, power);
+            }
+            if (e > 1) {
+                power = square(power);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Натуральный логарифм суммы координат selected в vector·matrix^exponent. Вектор и степень
+     * матрицы после каждого умножения делятся на свой максимум, масштаб копится отдельно,
+     * поэтому переполнения нет при любой степени. Для нулевой суммы — минус бесконечность.
+     */
+    public static double logApply(double[] vector, double[][] matrix, long exponent, boolean[] selected) {
+        double[] result = vector.clone();
+        double resultScale = normalize(result);
+        double[][] power = new double[matrix.length][];
+        double powerScale = 0;
+        for (int i = 0; i < matrix.length; i++) {
+            power[i] = matrix[i].clone();
+        }
+        powerScale += normalize(power);
+
+        for (long e = exponent; e > 0; e >>>= 1) {
+            if ((e & 1) != 0) {
+                result = multiply(result, power);
+                resultScale += powerScale + normalize(result);
+            }
+            if (e > 1) {
+                power = square(power);
+                powerScale = 2 * powerScale + normalize(power);
+            }
+        }
+
+        double sum = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (selected[i]) sum += result[i];
+        }
+        return Math.log(sum) + resultScale;
+    }
+
+    private static long[] multiplyMod(long[] vector, long[][] matrix, long modulus) {
+        long[] result = new long[matrix[0].length];
+        for (int i = 0; i < vector.length; i++) {
+            long x = vector[i];
+            if (x == 0) continue;
+            long[] row = matrix[i];
+            for (int j = 0; j < row.length; j++) {
+                result[j] = (result[j] + x * row[j]) % modulus;
+            }
+        }
+        return result;
+    }
+
+    private static long[][] squareMod(long[][] matrix, long modulus) {
+        long[][] result = new long[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            result[i] = multiplyMod(matrix[i], matrix, modulus);
+        }
+        return result;
+    }
+
+    private static BigInteger[] multiply(BigInteger[] vector, BigInteger[][] matrix) {
+        BigInteger[] result = new BigInteger[matrix[0].length];
+        Arrays.fill(result, BigInteger.ZERO);
+        for (int i = 0; i < vector.length; i++) {
+            BigInteger x = vector[i];
+            if (x.signum() == 0) continue;
+            BigInteger[] row = matrix[i];
+            for (int j = 0; j < row.length; j++) {
+                if (row[j].signum() != 0) {
+                    result[j] = result[j].add(x.multiply(row[j]));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static BigInteger[][] square(BigInteger[][] matrix) {
+        BigInteger[][] result = new BigInteger[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            result[i] = multiply(matrix[i], matrix);
+        }
+        return result;
+    }
+
+    private static double[] multiply(double[] vector, double[][] matrix) {
+        double[] result = new double[matrix[0].length];
+        for (int i = 0; i < vector.length; i++) {
+            double x = vector[i];
+            if (x == 0) continue;
+            double[] row = matrix[i];
+            for (int j = 0; j < row.length; j++) {
+                result[j] += x * row[j];
+            }
+        }
+        return result;
+    }
+
+    private static double[][] square(double[][] matrix) {
+        double[][] result = new double[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            result[i] = multiply(matrix[i], matrix);
+        }
+        return result;
+    }
+
+    // Делит на максимум и возвращает его логарифм; нулевой вектор не трогает
+    private static double normalize(double[] vector) {
+        double max = 0;
+        for (double x : vector) max = Math.max(max, x);
+        if (max == 0) return 0;
+        for (int i = 0; i < vector.length; i++) vector[i] /= max;
+        return Math.log(max);
+    }
+
+    private static double normalize(double[][] matrix) {
+        double max = 0;
+        for (double[] row : matrix) {
+            for (double x : row) max = Math.max(max, x);
+        }
+        if (max == 0) return 0;
+        for (double[] row : matrix) {
+            for (int j = 0; j < row.length; j++) row[j] /= max;
+        }
+        return Math.log(max);
+    }
+}
@@ -0,0 +1,61 @@
+package com.morro.cdsl.solver.balls;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Binomials;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.BallsSpec;
+import com.morro.cdsl.spec.Calculation;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Точный ответ для урны по многомерному гипергеометрическому распределению: среди DRAW_COUNT
+ * вытянутых шаров ровно столько шаров каждого цвета из TARGET, сколько там указано, остальные
+ * цвета не ограничены и сливаются в один. Шары различимы, так что благоприятных наборов
+ * Π C(n_c, w_c) · C(свободные, k - Σ w_c) из C(N, k).
+ *
+ * Вероятность от способа извлечения не зависит. COMBINATIONS при одновременном извлечении —
+ * число наборов, при последовательном — число упорядоченных выборок, в k! раз больше.
+ */
+public final class BallsSolver implements ProblemSolver<BallsSpec> {
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.BALLS_AND_URNS;
+    }
+
+    @Override
+    public Class<BallsSpec> specType() {
+        return BallsSpec.class;
+    }
+
+    @Override
+    public boolean supports(BallsSpec spec, Calculation calculation) {
+        return (calculation == Calculation.PROBABILITY || calculation == Calculation.COMBINATIONS)
+                && spec.drawCount() >= 0 && spec.drawCount() <= spec.totalBalls();
+    }
+
+    @Override
+    public Fraction solve(BallsSpec spec, Calculation calculation, ForkJoinPool pool) {
+        int draws = spec.drawCount();
+        int fixed = 0;
+        int free = 0;
+        BigInteger favourable = BigInteger.ONE;
+        for (int color = 0; color < spec.colorCount(); color++) {
+            if (spec.wanted(color) < 0) {
+                free += spec.count(color);
+            } else {
+                fixed += spec.wanted(color);
+                favourable = favourable.multiply(Binomials.binomial(spec.count(color), spec.wanted(color)));
+            }
+        }
+        favourable = favourable.multiply(Binomials.binomial(free, draws - fixed));
+
+        if (calculation == Calculation.COMBINATIONS) {
+            return Fraction.valueOf(spec.sequential() ? favourable.multiply(Binomials.factorial(draws)) : favourable);
+        }
+        return Fraction.of(favourable, Binomials.binomial(spec.totalBalls(), draws));
+    }
+}
@@ -0,0 +1,101 @@
+package com.morro.cdsl.solver.balls;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Estimate;
+import com.morro.cdsl.solver.MonteCarlo;
+import com.morro.cdsl.solver.ProblemEstimator;
+import com.morro.cdsl.spec.BallsSpec;
+import com.morro.cdsl.spec.Calculation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Оценка вероятности для урны моделированием, по CALCULATE SIMULATION: точный ответ
+ * даёт {@link BallsSolver}, зарегистрированный раньше. Событие — среди вытянутых DRAW_COUNT шаров
+ * ровно столько шаров каждого цвета из TARGET, сколько там указано; остальные цвета
+ * не ограничены. Шары тянутся без возвращения, поэтому для такого события
+ * последовательное и одновременное извлечение равносильны.
+ *
+ * Урна — массив номеров цветов, k шаров берутся частичной перетасовкой Фишера — Йетса,
+ * счётчики цветов — массив того же испытания, обнуляемый перед каждым извлечением.
+ */
+public final class MonteCarloBallsSolver implements ProblemEstimator<BallsSpec> {
+    private final MonteCarlo.Settings settings;
+
+    public MonteCarloBallsSolver() {
+        this(MonteCarlo.DEFAULTS);
+    }
+
+    public MonteCarloBallsSolver(MonteCarlo.Settings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.BALLS_AND_URNS;
+    }
+
+    @Override
+    public Class<BallsSpec> specType() {
+        return BallsSpec.class;
+    }
+
+    @Override
+    public boolean supports(BallsSpec spec, Calculation calculation) {
+        return (calculation == Calculation.PROBABILITY || calculation == Calculation.SIMULATION)
+                && spec.drawCount() >= 0 && spec.drawCount() <= spec.totalBalls();
+    }
+
+    @Override
+    public Estimate estimate(BallsSpec spec, ForkJoinPool pool) {
+        int colors = spec.colorCount();
+        int[] urn = new int[spec.totalBalls()];
+        int n = 0;
+        for (int color = 0; color < colors; color++) {
+            for (int i = 0; i < spec.count(color); i++) {
+                urn[n++] = color;
+            }
+        }
+        int[] wanted = new int[colors];
+        for (int color = 0; color < colors; color++) {
+            wanted[color] = spec.wanted(color);
+        }
+        int draws = spec.drawCount();
+        return MonteCarlo.estimate(() -> new Draw(urn.clone(), new int[colors], wanted, draws), settings, pool);
+    }
+
+    private static final class Draw implements MonteCarlo.Trial {
+        private final int[] urn;
+        private final int[] drawn;
+        private final int[] wanted;
+        private final int draws;
+
+        Draw(int[] urn, int[] drawn, int[] wanted, int draws) {
+            this.urn = urn;
+            this.drawn = drawn;
+            this.wanted = wanted;
+            this.draws = draws;
+        }
+
+        @Override
+        public boolean run(SplittableRandom random) {
+            Arrays.fill(drawn, 0);
+            int n = urn.length;
+            for (int i = 0; i < draws; i++) {
+                int j = i + random.nextInt(n - i);
+                int ball = urn[j];
+                urn[j] = urn[i];
+                urn[i] = ball;
+                drawn[ball]++;
+            }
+            for (int color = 0; color < wanted.length; color++) {
+                if (wanted[color] >= 0 && drawn[color] != wanted[color]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Binomials;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.CardsSpec;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Точное решение карточных задач в замкнутой форме, без перебора раздач. Событие — среди
+ * вытянутых k карт из колоды в N карт есть все K целевых.
+ * <ul>
+ *   <li>без возвращения (гипергеометрическое): C(N - K, k - K) / C(N, k);</li>
+ *   <li>с возвращением — формула включений-исключений по не выпавшим целевым картам:
+ *       Σ (-1)^j C(K, j) (N - j)^k / N^k.</li>
+ * </ul>
+ * COMBINATIONS — число благоприятных исходов: наборов без возвращения, последовательностей
+ * с возвращением. EXPECTATION — среднее число целевых карт среди вытянутых, k·K / N.
+ */
+public final class CardsSolver implements ProblemSolver<CardsSpec> {
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CARDS;
+    }
+
+    @Override
+    public Class<CardsSpec> specType() {
+        return CardsSpec.class;
+    }
+
+    @Override
+    public boolean supports(CardsSpec spec, Calculation calculation) {
+        return spec.categoryMask() == 0 && !spec.atLeast()
+                && calculation != Calculation.DISTINCT_COMBINATIONS && calculation != Calculation.SIMULATION;
+    }
+
+    @Override
+    public Fraction solve(CardsSpec spec, Calculation calculation, ForkJoinPool pool) {
+        int deck = spec.deckSize();
+        int draws = spec.drawCount();
+        if (deck <= 0 || draws < 0) {
+            throw new IllegalArgumentException("Invalid deck: " + deck + " cards, " + draws + " draws");
+        }
+        if (!spec.withReplacement() && draws > deck) {
+            throw new IllegalArgumentException("Cannot draw " + draws + " cards from a deck of " + deck);
+        }
+
+        // Повторы в TARGET не меняют события; карта вне колоды делает его невозможным
+        long seen = 0;
+        int targets = 0;
+        int present = 0;
+        for (int i = 0; i < spec.targetCount(); i++) {
+            int card = spec.target(i);
+            if ((seen & 1L << card) == 0) {
+                seen |= 1L << card;
+                targets++;
+                present += spec.inDeck(card) ? 1 : 0;
+            }
+        }
+        boolean missing = present < targets;
+        if (targets > deck) {
+            throw new IllegalArgumentException(targets + " target cards in a deck of " + deck);
+        }
+
+        return switch (calculation) {
+            case EXPECTATION -> Fraction.of((long) draws * present, deck);
+            case COMBINATIONS -> missing ? Fraction.ZERO : Fraction.valueOf(spec.withReplacement()
+                    ? sequencesWithAll(deck, draws, targets) : Binomials.binomial(deck - targets, draws - targets));
+            case PROBABILITY -> missing ? Fraction.ZERO : spec.withReplacement()
+                    ? withReplacement(deck, draws, targets) : withoutReplacement(deck, draws, targets);
+            default -> throw new IllegalArgumentException("Unsupported calculation for cards: " + calculation);
+        };
+    }
+
+    static Fraction withoutReplacement(int deck, int draws, int targets) {
+        long favourable = Binomials.binomialLong(deck - targets, draws - targets);
+        long total = Binomials.binomialLong(deck, draws);
+        if (favourable >= 0 && total >= 0) {
+            return Fraction.of(favourable, total);
+        }
+        return Fraction.of(Binomials.binomial(deck - targets, draws - targets), Binomials.binomial(deck, draws));
+    }
+
+    static Fraction withReplacement(int deck, int draws, int targets) {
+        return Fraction.of(sequencesWithAll(deck, draws, targets), BigInteger.valueOf(deck).pow(draws));
+    }
+
+    // Число последовательностей из draws карт колоды, в которых встречаются все targets целевых
+    static BigInteger sequencesWithAll(int deck, int draws, int targets) {
+        if (targets > draws) {
+            return BigInteger.ZERO;
+        }
+        // Быстрый путь: 2^targets · deck^draws помещается в long — тогда и все слагаемые, и их суммы
+        if ((long) draws * (64 - Long.numberOfLeadingZeros(deck)) + targets < 63) {
+            long sum = 0;
+            for (int j = 0; j <= targets; j++) {
+                long term = Binomials.binomialLong(targets, j) * power(deck - j, draws);
+                sum += (j & 1) == 0 ? term : -term;
+            }
+            return BigInteger.valueOf(sum);
+        }
+        BigInteger sum = BigInteger.ZERO;
+        for (int j = 0; j <= targets; j++) {
+            BigInteger term = Binomials.binomial(targets, j).multiply(BigInteger.valueOf(deck - j).pow(draws));
+            sum = (j & 1) == 0 ? sum.add(term) : sum.subtract(term);
+        }
+        return sum;
+    }
+
+    private static long power(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+}
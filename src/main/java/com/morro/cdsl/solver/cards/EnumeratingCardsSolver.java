@@ -0,0 +1,69 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Binomials;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.CardsSpec;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Карточные задачи прямым перебором рук через HandEnumerator. Отвечает на те же вопросы,
+ * что и CardsSolver, поэтому в installedSolvers не входит: это эталон, с которым формулы
+ * сверяет EnumeratingCardsSolverTest; явно его вызывают через SolverEngine.solve(spec, calculation, solver).
+ * Берёт только извлечение без возвращения из колоды до 64 карт и не больше MAX_HANDS рук.
+ */
+public final class EnumeratingCardsSolver implements ProblemSolver<CardsSpec> {
+    public static final long MAX_HANDS = 1L << 32;
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CARDS;
+    }
+
+    @Override
+    public Class<CardsSpec> specType() {
+        return CardsSpec.class;
+    }
+
+    @Override
+    public boolean supports(CardsSpec spec, Calculation calculation) {
+        if (calculation == Calculation.DISTINCT_COMBINATIONS || calculation == Calculation.SIMULATION
+                || spec.categoryMask() != 0 || spec.atLeast()
+                || spec.withReplacement() || spec.deckSize() > Long.SIZE || spec.deckSize() < 0
+                || spec.drawCount() < 0 || spec.drawCount() > spec.deckSize()) {
+            return false;
+        }
+        long hands = Binomials.binomialLong(spec.deckSize(), spec.drawCount());
+        return hands >= 0 && hands <= MAX_HANDS;
+    }
+
+    @Override
+    public Fraction solve(CardsSpec spec, Calculation calculation, ForkJoinPool pool) {
+        long deck = spec.deckMask();
+        long targets = 0;
+        boolean missing = false;
+        for (int i = 0; i < spec.targetCount(); i++) {
+            targets |= 1L << spec.target(i);
+            missing |= !spec.inDeck(spec.target(i));
+        }
+
+        long[] hits = HandEnumerator.hits(deck, spec.drawCount(), targets, pool);
+        long total = 0;
+        long drawn = 0;
+        for (int i = 0; i < hits.length; i++) {
+            total += hits[i];
+            drawn += i * hits[i];
+        }
+        long all = missing ? 0 : hits[hits.length - 1];
+
+        return switch (calculation) {
+            case PROBABILITY -> Fraction.of(all, total);
+            case COMBINATIONS -> Fraction.valueOf(all);
+            case EXPECTATION -> Fraction.of(drawn, total);
+            default -> throw new IllegalArgumentException("Unsupported calculation for cards: " + calculation);
+        };
+    }
+}
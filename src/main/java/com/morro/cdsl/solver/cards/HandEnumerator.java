@@ -0,0 +1,122 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.solver.Binomials;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongPredicate;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Перебор всех рук из k карт колоды, заданной маской long (до 64 карт). Руки — k-элементные
+ * подмножества позиций колоды; они идут в порядке возрастания (colex) через приём Госпера,
+ * а на биты колоды раскладываются Long.expand. Диапазон номеров сочетаний делится пополам
+ * между потоками ForkJoinPool; начало каждого куска восстанавливается по номеру.
+ */
+public final class HandEnumerator {
+    // Кусок меньше этого не делим: накладные расходы на задачу перевесят выигрыш
+    private static final long MIN_CHUNK = 1 << 15;
+
+    private HandEnumerator() {
+    }
+
+    // Число рук C(n, k); -1 — не помещается в long
+    public static long handCount(long deck, int hand) {
+        return Binomials.binomialLong(Long.bitCount(deck), hand);
+    }
+
+    public static long count(long deck, int hand, LongPredicate matches, ForkJoinPool pool) {
+        return tally(deck, hand, 1, cards -> matches.test(cards) ? 0 : -1, pool)[0];
+    }
+
+    // Распределение рук по числу попавших в них карт из targets: результат[i] — рук ровно с i такими картами
+    public static long[] hits(long deck, int hand, long targets, ForkJoinPool pool) {
+        long present = targets & deck;
+        return tally(deck, hand, Long.bitCount(present) + 1, cards -> Long.bitCount(cards & present), pool);
+    }
+
+    // Число рук в каждой корзине 0..buckets-1; корзина -1 — рука не учитывается
+    public static long[] tally(long deck, int hand, int buckets, LongToIntFunction bucket, ForkJoinPool pool) {
+        long total = handCount(deck, hand);
+        if (total < 0) {
+            throw new IllegalArgumentException("Too many hands: C(" + Long.bitCount(deck) + ", " + hand + ")");
+        }
+        if (total == 0) {
+            return new long[buckets];
+        }
+        long chunk = Math.max(MIN_CHUNK, total / (8L * pool.getParallelism()));
+        return pool.invoke(new Range(deck, hand, buckets, bucket, 0, total, chunk));
+    }
+
+    // Сочетание с номером rank в colex-порядке: старший элемент — наибольший c с C(c, i) <= rank
+    static long unrank(long rank, int hand) {
+        long combination = 0;
+        int c = Long.SIZE;
+        for (int i = hand; i > 0; i--) {
+            do {
+                c--;
+            } while (Binomials.binomialLong(c, i) > rank);
+            combination |= 1L << c;
+            rank -= Binomials.binomialLong(c, i);
+        }
+        return combination;
+    }
+
+    // Следующее число с тем же количеством единиц (приём Госпера)
+    static long next(long combination) {
+        long lowest = combination & -combination;
+        long ripple = combination + lowest;
+        return ((ripple ^ combination) >>> 2) / lowest | ripple;
+    }
+
+    private static final class Range extends RecursiveTask<long[]> {
+        private final long deck;
+        private final int hand;
+        private final int buckets;
+        private final LongToIntFunction bucket;
+        private final long from;
+        private final long to;
+        private final long chunk;
+
+        Range(long deck, int hand, int buckets, LongToIntFunction bucket, long from, long to, long chunk) {
+            this.deck = deck;
+            this.hand = hand;
+            this.buckets = buckets;
+            this.bucket = bucket;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > chunk) {
+                long middle = from + (to - from) / 2;
+                Range right = new Range(deck, hand, buckets, bucket, middle, to, chunk);
+                right.fork();
+                long[] counts = new Range(deck, hand, buckets, bucket, from, middle, chunk).compute();
+                long[] other = right.join();
+                for (int i = 0; i < buckets; i++) {
+                    counts[i] += other[i];
+                }
+                return counts;
+            }
+
+            long[] counts = new long[buckets];
+            // Колода из младших битов — позиции совпадают с картами, раскладывать не нужно
+            boolean dense = (deck & deck + 1) == 0;
+            long combination = unrank(from, hand);
+            for (long rank = from; rank < to; rank++) {
+                long cards = dense ? combination : Long.expand(combination, deck);
+                int index = bucket.applyAsInt(cards);
+                if (index >= 0) {
+                    counts[index]++;
+                }
+                if (rank + 1 < to) {
+                    combination = next(combination);
+                }
+            }
+            return counts;
+        }
+    }
+}
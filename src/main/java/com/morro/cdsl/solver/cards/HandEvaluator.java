@@ -0,0 +1,120 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.model.Card;
+import com.morro.cdsl.spec.HandCategory;
+
+/**
+ * Покерная комбинация руки по таблицам, построенным один раз при загрузке класса.
+ * <ul>
+ *   <li>STRAIGHT_TOP — по 13-битной маске рангов старший ранг лучшего стрита или -1 (8 КБ);</li>
+ *   <li>CATEGORY — совершенный хэш профиля руки: две наибольшие кратности рангов,
+ *       флаги флеша и стрита; 100 байт.</li>
+ * </ul>
+ * Стрит-флеш проверяется отдельно по маске рангов масти флеша. В руке больше пяти карт
+ * берётся лучшая пятёрка; руке меньше пяти карт стрит и флеш недоступны.
+ */
+public final class HandEvaluator {
+    private static final int RANKS = Card.RANKS.length;
+    private static final int SUITS = Card.SUITS.length;
+    private static final int ACE = RANKS - 1;
+    // Биты карт одной масти: ранг r — бит r * 4
+    private static final long SUIT_CARDS;
+
+    private static final byte[] STRAIGHT_TOP = new byte[1 << RANKS];
+    private static final byte[] CATEGORY = new byte[5 * 5 * 2 * 2];
+
+    static {
+        long suit = 0;
+        for (int rank = 0; rank < RANKS; rank++) {
+            suit |= 1L << rank * SUITS;
+        }
+        SUIT_CARDS = suit;
+
+        for (int ranks = 0; ranks < STRAIGHT_TOP.length; ranks++) {
+            // Туз играет и старшей, и младшей картой (A-2-3-4-5)
+            int extended = ranks << 1 | ranks >>> ACE & 1;
+            int top = -1;
+            for (int high = RANKS; high >= 4 && top < 0; high--) {
+                if ((extended >>> high - 4 & 0x1F) == 0x1F) {
+                    top = high - 1;
+                }
+            }
+            STRAIGHT_TOP[ranks] = (byte) top;
+        }
+
+        for (int first = 0; first <= 4; first++) {
+            for (int second = 0; second <= 4; second++) {
+                for (int flush = 0; flush <= 1; flush++) {
+                    for (int straight = 0; straight <= 1; straight++) {
+                        CATEGORY[index(first, second, flush == 1, straight == 1)] =
+                                (byte) category(first, second, flush == 1, straight == 1).ordinal();
+                    }
+                }
+            }
+        }
+    }
+
+    private HandEvaluator() {
+    }
+
+    public static HandCategory evaluate(long hand) {
+        int ranks = 0;
+        boolean flush = false;
+        int straightFlush = -1;
+        // При десяти и более картах флеш может оказаться в двух мастях — смотрим все
+        for (int s = 0; s < SUITS; s++) {
+            int suited = (int) Long.compress(hand, SUIT_CARDS << s);
+            ranks |= suited;
+            if (Integer.bitCount(suited) >= 5) {
+                flush = true;
+                straightFlush = Math.max(straightFlush, STRAIGHT_TOP[suited]);
+            }
+        }
+        if (straightFlush >= 0) {
+            return straightFlush == ACE ? HandCategory.ROYAL_FLUSH : HandCategory.STRAIGHT_FLUSH;
+        }
+
+        int first = 0;
+        int second = 0;
+        for (int rank = 0; rank < RANKS; rank++) {
+            int count = Long.bitCount(hand >>> rank * SUITS & (1 << SUITS) - 1);
+            if (count > first) {
+                second = first;
+                first = count;
+            } else if (count > second) {
+                second = count;
+            }
+        }
+        return category(first, second, ranks, flush);
+    }
+
+    // Комбинация по профилю руки без стрит-флеша: first >= second — две наибольшие кратности рангов
+    static HandCategory category(int first, int second, int ranks, boolean flush) {
+        return HandCategory.of(CATEGORY[index(first, second, flush, STRAIGHT_TOP[ranks] >= 0)]);
+    }
+
+    // Старший ранг стрита в маске рангов или -1
+    static int straightTop(int ranks) {
+        return STRAIGHT_TOP[ranks];
+    }
+
+    static boolean royal(int straightTop) {
+        return straightTop == ACE;
+    }
+
+    private static int index(int first, int second, boolean flush, boolean straight) {
+        return ((first * 5 + second) * 2 + (flush ? 1 : 0)) * 2 + (straight ? 1 : 0);
+    }
+
+    // Только для построения таблицы
+    private static HandCategory category(int first, int second, boolean flush, boolean straight) {
+        if (first == 4) return HandCategory.FOUR_OF_A_KIND;
+        if (first == 3 && second >= 2) return HandCategory.FULL_HOUSE;
+        if (flush) return HandCategory.FLUSH;
+        if (straight) return HandCategory.STRAIGHT;
+        if (first == 3) return HandCategory.THREE_OF_A_KIND;
+        if (first == 2 && second == 2) return HandCategory.TWO_PAIR;
+        if (first == 2) return HandCategory.ONE_PAIR;
+        return HandCategory.HIGH_CARD;
+    }
+}
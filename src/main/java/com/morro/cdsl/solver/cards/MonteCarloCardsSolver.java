@@ -0,0 +1,109 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.model.Card;
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Estimate;
+import com.morro.cdsl.solver.MonteCarlo;
+import com.morro.cdsl.solver.ProblemEstimator;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.CardsSpec;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Оценка вероятности карточной задачи моделированием — по CALCULATE SIMULATION и для того,
+ * что точные решатели не берут: конкретные карты вместе с покерными комбинациями,
+ * комбинации при раздаче больше PokerSolver.MAX_DRAW карт. Событие — в руке есть все целевые карты и, если
+ * в TARGET есть комбинации, лучшая пятёрка руки — одна из них.
+ *
+ * Колода — массив номеров карт; без возвращения рука берётся частичной перетасовкой
+ * Фишера — Йетса первых k позиций прямо в этом массиве, с возвращением — k независимых
+ * выборов. Рука собирается в маску long.
+ */
+public final class MonteCarloCardsSolver implements ProblemEstimator<CardsSpec> {
+    private final MonteCarlo.Settings settings;
+
+    public MonteCarloCardsSolver() {
+        this(MonteCarlo.DEFAULTS);
+    }
+
+    public MonteCarloCardsSolver(MonteCarlo.Settings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CARDS;
+    }
+
+    @Override
+    public Class<CardsSpec> specType() {
+        return CardsSpec.class;
+    }
+
+    // Комбинации считаются только на стандартных 52 позициях и для руки без повторов
+    @Override
+    public boolean supports(CardsSpec spec, Calculation calculation) {
+        boolean categories = spec.categoryMask() != 0;
+        return (calculation == Calculation.PROBABILITY || calculation == Calculation.SIMULATION) && !spec.atLeast()
+                && spec.deckSize() > 0 && spec.deckSize() <= (categories ? Card.DECK_SIZE : Long.SIZE)
+                && spec.drawCount() >= 0 && (spec.withReplacement() ? !categories : spec.drawCount() <= spec.deckSize());
+    }
+
+    @Override
+    public Estimate estimate(CardsSpec spec, ForkJoinPool pool) {
+        long deck = spec.deckMask();
+        long targets = 0;
+        for (int i = 0; i < spec.targetCount(); i++) {
+            targets |= 1L << spec.target(i);
+        }
+        int[] cards = new int[Long.bitCount(deck)];
+        int n = 0;
+        for (long rest = deck; rest != 0; rest &= rest - 1) {
+            cards[n++] = Long.numberOfTrailingZeros(rest);
+        }
+
+        long wanted = targets;
+        int categories = spec.categoryMask();
+        int draws = spec.drawCount();
+        boolean replacement = spec.withReplacement();
+        return MonteCarlo.estimate(() -> new Draw(cards.clone(), draws, replacement, wanted, categories), settings, pool);
+    }
+
+    private static final class Draw implements MonteCarlo.Trial {
+        private final int[] cards;
+        private final int draws;
+        private final boolean replacement;
+        private final long targets;
+        private final int categories;
+
+        Draw(int[] cards, int draws, boolean replacement, long targets, int categories) {
+            this.cards = cards;
+            this.draws = draws;
+            this.replacement = replacement;
+            this.targets = targets;
+            this.categories = categories;
+        }
+
+        @Override
+        public boolean run(SplittableRandom random) {
+            long hand = 0;
+            int n = cards.length;
+            for (int i = 0; i < draws; i++) {
+                if (replacement) {
+                    hand |= 1L << cards[random.nextInt(n)];
+                } else {
+                    // Массив остаётся перемешанным — следующая рука начинается с любой перестановки
+                    int j = i + random.nextInt(n - i);
+                    int card = cards[j];
+                    cards[j] = cards[i];
+                    cards[i] = card;
+                    hand |= 1L << card;
+                }
+            }
+            return (hand & targets) == targets
+                    && (categories == 0 || (categories >>> HandEvaluator.evaluate(hand).ordinal() & 1) != 0);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.model.Card;
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Binomials;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.CardsSpec;
+import com.morro.cdsl.spec.HandCategory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Покерные комбинации в TARGET: вероятность того, что лучшая пятёрка вытянутых карт —
+ * одна из перечисленных комбинаций.
+ *
+ * Руки не перебираются. Перебираются векторы кратностей рангов (для 7 карт из 52 — около
+ * 50 тысяч вместо 133 миллионов рук), каждый со своим числом раскладов по мастям.
+ * Без флеша комбинацию даёт профиль вектора из таблиц HandEvaluator; расклады с флешем
+ * считаются отдельно по множеству рангов масти флеша. При k <= 9 флеш возможен только
+ * в одной масти, поэтому такие расклады не пересекаются.
+ *
+ * Распределение по всем комбинациям кэшируется для пары (колода, число карт).
+ */
+public final class PokerSolver implements ProblemSolver<CardsSpec> {
+    public static final int MAX_DRAW = 9;
+    private static final int RANKS = Card.RANKS.length;
+    private static final int SUITS = Card.SUITS.length;
+
+    private static final ConcurrentMap<Key, long[]> COUNTS = new ConcurrentHashMap<>();
+
+    private record Key(long deck, int hand) {
+    }
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CARDS;
+    }
+
+    @Override
+    public Class<CardsSpec> specType() {
+        return CardsSpec.class;
+    }
+
+    // Конкретные карты вместе с комбинациями не поддерживаются
+    @Override
+    public boolean supports(CardsSpec spec, Calculation calculation) {
+        return spec.categoryMask() != 0 && spec.targetCount() == 0 && !spec.atLeast() && !spec.withReplacement()
+                && (calculation == Calculation.PROBABILITY || calculation == Calculation.COMBINATIONS)
+                && spec.deckSize() >= 0 && spec.deckSize() <= Card.DECK_SIZE
+                && spec.drawCount() >= 0 && spec.drawCount() <= Math.min(MAX_DRAW, spec.deckSize());
+    }
+
+    @Override
+    public Fraction solve(CardsSpec spec, Calculation calculation, ForkJoinPool pool) {
+        long[] counts = categoryCounts(spec.deckMask(), spec.drawCount());
+        long favourable = 0;
+        for (HandCategory category : spec.categories()) {
+            favourable += counts[category.ordinal()];
+        }
+        return calculation == Calculation.COMBINATIONS
+                ? Fraction.valueOf(favourable)
+                : Fraction.of(favourable, Binomials.binomialLong(spec.deckSize(), spec.drawCount()));
+    }
+
+    // Число рук из hand карт колоды deck (только стандартные 52 позиции) по HandCategory.ordinal()
+    public static long[] categoryCounts(long deck, int hand) {
+        if (hand < 0 || hand > MAX_DRAW || deck >>> Card.DECK_SIZE != 0) {
+            throw new IllegalArgumentException("Unsupported poker draw: " + hand + " cards");
+        }
+        return COUNTS.computeIfAbsent(new Key(deck, hand), key -> new Counter(key.deck(), key.hand()).run()).clone();
+    }
+
+    private static final class Counter {
+        // Маска доступных мастей по рангу и маска рангов, где есть масть s
+        private final int[] suits = new int[RANKS];
+        private final int[] ranksOfSuit = new int[SUITS];
+        // Сколько карт ещё можно взять из рангов начиная с r
+        private final int[] available = new int[RANKS + 1];
+        private final int[] taken = new int[RANKS];
+        private final int hand;
+        private final long[] counts = new long[HandCategory.values().length];
+
+        Counter(long deck, int hand) {
+            this.hand = hand;
+            for (int rank = 0; rank < RANKS; rank++) {
+                suits[rank] = (int) (deck >>> rank * SUITS) & (1 << SUITS) - 1;
+                for (int s = 0; s < SUITS; s++) {
+                    ranksOfSuit[s] |= (suits[rank] >>> s & 1) << rank;
+                }
+            }
+            for (int rank = RANKS - 1; rank >= 0; rank--) {
+                available[rank] = available[rank + 1] + Integer.bitCount(suits[rank]);
+            }
+        }
+
+        long[] run() {
+            if (hand <= available[0]) {
+                visit(0, hand, 0, 0, 0, 1);
+            }
+            return counts;
+        }
+
+        private void visit(int rank, int remaining, int first, int second, int ranks, long ways) {
+            if (remaining == 0) {
+                count(first, second, ranks, ways);
+                return;
+            }
+            if (remaining > available[rank]) {
+                return;
+            }
+            int size = Integer.bitCount(suits[rank]);
+            for (int c = 0; c <= Math.min(size, remaining); c++) {
+                taken[rank] = c;
+                int top = Math.max(first, c);
+                int next = c > first ? first : Math.max(second, c);
+                visit(rank + 1, remaining - c, top, next, c > 0 ? ranks | 1 << rank : ranks,
+                        ways * Binomials.binomialLong(size, c));
+            }
+            taken[rank] = 0;
+        }
+
+        // Все расклады мастей для текущего вектора кратностей
+        private void count(int first, int second, int ranks, long ways) {
+            long flushes = 0;
+            if (Integer.bitCount(ranks) >= 5) {
+                for (int s = 0; s < SUITS; s++) {
+                    int candidates = ranks & ranksOfSuit[s];
+                    for (int flush = candidates; flush != 0; flush = (flush - 1) & candidates) {
+                        if (Integer.bitCount(flush) < 5) {
+                            continue;
+                        }
+                        long layouts = layouts(s, flush, ranks);
+                        if (layouts == 0) {
+                            continue;
+                        }
+                        int top = HandEvaluator.straightTop(flush);
+                        HandCategory category = top < 0 ? HandEvaluator.category(first, second, ranks, true)
+                                : HandEvaluator.royal(top) ? HandCategory.ROYAL_FLUSH : HandCategory.STRAIGHT_FLUSH;
+                        counts[category.ordinal()] += layouts;
+                        flushes += layouts;
+                    }
+                }
+            }
+            counts[HandEvaluator.category(first, second, ranks, false).ordinal()] += ways - flushes;
+        }
+
+        // Расклады, где масть s есть ровно в рангах flush
+        private long layouts(int s, int flush, int ranks) {
+            long layouts = 1;
+            for (int rest = ranks; rest != 0 && layouts != 0; rest &= rest - 1) {
+                int rank = Integer.numberOfTrailingZeros(rest);
+                int size = Integer.bitCount(suits[rank]);
+                layouts *= (flush >>> rank & 1) != 0
+                        ? Binomials.binomialLong(size - 1, taken[rank] - 1)
+                        : Binomials.binomialLong(size - (suits[rank] >>> s & 1), taken[rank]);
+            }
+            return layouts;
+        }
+    }
+}
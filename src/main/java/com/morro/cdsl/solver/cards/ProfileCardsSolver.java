@@ -0,0 +1,117 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.model.Card;
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Binomials;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.CardsSpec;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Карточные задачи по профилю руки, TARGET AT_LEAST: цель читается не как набор конкретных
+ * карт, а как требование «не меньше карт каждого ранга и каждой масти, чем в TARGET». Так,
+ * TARGET AT_LEAST [ACE SPADES, ACE HEARTS] означает «хотя бы два туза, хотя бы одна пика и одна черва».
+ *
+ * Руки не перебираются. Динамика идёт по рангам колоды: для ранга выбирается подмножество
+ * мастей, состояние — число взятых карт и счётчики мастей, обрезанные по требованию. Руки
+ * с одинаковым профилем складываются в одно состояние, поэтому раздачи по 7–13 карт из
+ * 36 или 52 считаются за доли миллисекунды. Только извлечение без возвращения, колода до 64 карт.
+ */
+public final class ProfileCardsSolver implements ProblemSolver<CardsSpec> {
+    private static final int SUITS = Card.SUITS.length;
+    // Позиции 52..63 колоды нестандартного состава — три дополнительных «ранга»
+    private static final int RANKS = Long.SIZE / SUITS;
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CARDS;
+    }
+
+    @Override
+    public Class<CardsSpec> specType() {
+        return CardsSpec.class;
+    }
+
+    @Override
+    public boolean supports(CardsSpec spec, Calculation calculation) {
+        return spec.atLeast()
+                && (calculation == Calculation.PROBABILITY || calculation == Calculation.COMBINATIONS)
+                && spec.categoryMask() == 0 && !spec.withReplacement()
+                && spec.deckSize() >= 0 && spec.deckSize() <= Long.SIZE
+                && spec.drawCount() >= 0 && spec.drawCount() <= spec.deckSize();
+    }
+
+    @Override
+    public Fraction solve(CardsSpec spec, Calculation calculation, ForkJoinPool pool) {
+        long targets = 0;
+        for (int i = 0; i < spec.targetCount(); i++) {
+            targets |= 1L << spec.target(i);
+        }
+        int[] rankNeed = new int[RANKS];
+        int[] suitNeed = new int[SUITS];
+        for (long rest = targets; rest != 0; rest &= rest - 1) {
+            int card = Long.numberOfTrailingZeros(rest);
+            rankNeed[card / SUITS]++;
+            suitNeed[card % SUITS]++;
+        }
+
+        long favourable = count(spec.deckMask(), spec.drawCount(), rankNeed, suitNeed);
+        return calculation == Calculation.COMBINATIONS
+                ? Fraction.valueOf(favourable)
+                : Fraction.of(favourable, Binomials.binomialLong(spec.deckSize(), spec.drawCount()));
+    }
+
+    // Число рук из hand карт колоды deck, где карт ранга r не меньше rankNeed[r], масти s — не меньше suitNeed[s]
+    static long count(long deck, int hand, int[] rankNeed, int[] suitNeed) {
+        // Состояние: взято карт * stride + счётчики мастей в смешанной системе счисления с основаниями need + 1
+        int[] radix = new int[SUITS];
+        int stride = 1;
+        for (int s = 0; s < SUITS; s++) {
+            radix[s] = stride;
+            stride *= suitNeed[s] + 1;
+        }
+        int full = stride - 1;
+
+        long[] ways = new long[(hand + 1) * stride];
+        ways[0] = 1;
+        for (int rank = 0; rank < RANKS; rank++) {
+            int suits = (int) (deck >>> rank * SUITS) & (1 << SUITS) - 1;
+            if (suits == 0 && rankNeed[rank] == 0) {
+                continue;
+            }
+            long[] next = new long[ways.length];
+            for (int state = 0; state < ways.length; state++) {
+                if (ways[state] == 0) {
+                    continue;
+                }
+                int taken = state / stride;
+                int counters = state % stride;
+                // Все подмножества мастей, доступных в этом ранге, включая пустое
+                for (int subset = suits; ; subset = (subset - 1) & suits) {
+                    int size = Integer.bitCount(subset);
+                    if (size >= rankNeed[rank] && taken + size <= hand) {
+                        next[(taken + size) * stride + add(counters, subset, suitNeed, radix)] += ways[state];
+                    }
+                    if (subset == 0) {
+                        break;
+                    }
+                }
+            }
+            ways = next;
+        }
+        return ways[hand * stride + full];
+    }
+
+    // Прибавить по карте каждой масти из subset, не превышая требования
+    private static int add(int counters, int subset, int[] suitNeed, int[] radix) {
+        for (int s = 0; s < SUITS; s++) {
+            if ((subset >>> s & 1) != 0 && counters / radix[s] % (suitNeed[s] + 1) < suitNeed[s]) {
+                counters += radix[s];
+            }
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,101 @@
+package com.morro.cdsl.solver.chess;
+
+import com.morro.cdsl.spec.ChessPiece;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Битовые маски клеток, которые бьёт фигура с каждой клетки доски h x w. Клетка — бит
+ * row * width + col, маска — массив из words() слов long. Все фигуры, кроме пешки, бьют
+ * симметрично: a бьёт b тогда и только тогда, когда фигура того же вида с b бьёт a.
+ * Маски считаются один раз на размер доски и общие для всего процесса.
+ */
+final class AttackMasks {
+    // Фигуры с масками; пешка бьёт несимметрично и не поддерживается
+    static final ChessPiece[] PIECES = {ChessPiece.QUEEN, ChessPiece.ROOK, ChessPiece.BISHOP, ChessPiece.KNIGHT, ChessPiece.KING};
+
+    private static final Map<Long, AttackMasks> CACHE = new ConcurrentHashMap<>();
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+    private final int height;
+    private final int width;
+    private final int words;
+    // [piece.ordinal()][square * words + word]
+    private final long[][] masks = new long[ChessPiece.values().length][];
+
+    private AttackMasks(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.words = (height * width + Long.SIZE - 1) / Long.SIZE;
+        for (ChessPiece piece : PIECES) {
+            long[] table = new long[height * width * words];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    fill(piece, row, col, table, (row * width + col) * words);
+                }
+            }
+            masks[piece.ordinal()] = table;
+        }
+    }
+
+    static AttackMasks of(int height, int width) {
+        return CACHE.computeIfAbsent((long) height << 32 | width, key -> new AttackMasks(height, width));
+    }
+
+    int squares() {
+        return height * width;
+    }
+
+    int words() {
+        return words;
+    }
+
+    // Маска piece с клетки square — words() слов начиная с offset(square)
+    long[] table(ChessPiece piece) {
+        return masks[piece.ordinal()];
+    }
+
+    int offset(int square) {
+        return square * words;
+    }
+
+    private void fill(ChessPiece piece, int row, int col, long[] table, int offset) {
+        switch (piece) {
+            case KING -> steps(KING_STEPS, row, col, table, offset);
+            case KNIGHT -> steps(KNIGHT_STEPS, row, col, table, offset);
+            case ROOK -> lines(false, row, col, table, offset);
+            case BISHOP -> lines(true, row, col, table, offset);
+            case QUEEN -> {
+                lines(false, row, col, table, offset);
+                lines(true, row, col, table, offset);
+            }
+            case PAWN -> throw new IllegalArgumentException("Pawns attack asymmetrically");
+        }
+    }
+
+    private void steps(int[][] steps, int row, int col, long[] table, int offset) {
+        for (int[] step : steps) {
+            set(row + step[0], col + step[1], table, offset);
+        }
+    }
+
+    private void lines(boolean diagonal, int row, int col, long[] table, int offset) {
+        int[][] directions = diagonal ? new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}} : new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        for (int[] direction : directions) {
+            for (int r = row + direction[0], c = col + direction[1]; set(r, c, table, offset); r += direction[0], c += direction[1]) {
+            }
+        }
+    }
+
+    // false — клетка за пределами доски
+    private boolean set(int row, int col, long[] table, int offset) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return false;
+        }
+        int square = row * width + col;
+        table[offset + square / Long.SIZE] |= 1L << square;
+        return true;
+    }
+}
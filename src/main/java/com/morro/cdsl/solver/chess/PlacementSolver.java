@@ -0,0 +1,182 @@
+package com.morro.cdsl.solver.chess;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ChessPiece;
+import com.morro.cdsl.spec.ChessSpec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Мирные расстановки любого набора из KING, QUEEN, ROOK, BISHOP и KNIGHT перебором по маскам
+ * атак AttackMasks. Фигуры ставятся от дальнобойных к коротким, одинаковые — в порядке
+ * возрастания клеток, чтобы не считать их перестановки.
+ *
+ * На каждой глубине хранятся занятые и битые клетки и для каждого вида фигур — клетки,
+ * с которых фигура этого вида била бы уже стоящую (по симметрии атак это объединение её масок
+ * с занятых клеток). Кандидаты — дополнение этих множеств, так что проверять клетку не нужно,
+ * а последняя фигура считается подсчётом битов. Первые фигуры — отдельные задачи fork-join.
+ * ATTACKING — дополнение до всех расстановок (см. Placements).
+ */
+public final class PlacementSolver implements ProblemSolver<ChessSpec> {
+    // Маски занимают 5 · N · N / 64 слов; на больших досках перебор всё равно не закончится
+    public static final int MAX_SQUARES = 1024;
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CHESS;
+    }
+
+    @Override
+    public Class<ChessSpec> specType() {
+        return ChessSpec.class;
+    }
+
+    @Override
+    public boolean supports(ChessSpec spec, Calculation calculation) {
+        return (calculation == Calculation.PROBABILITY || calculation == Calculation.COMBINATIONS)
+                && Placements.validBoard(spec)
+                && Placements.only(spec, AttackMasks.PIECES)
+                && (long) spec.height() * spec.width() <= MAX_SQUARES;
+    }
+
+    @Override
+    public Fraction solve(ChessSpec spec, Calculation calculation, ForkJoinPool pool) {
+        int[] counts = new int[AttackMasks.PIECES.length];
+        for (int t = 0; t < counts.length; t++) {
+            counts[t] = spec.count(AttackMasks.PIECES[t]);
+        }
+        long count = count(AttackMasks.of(spec.height(), spec.width()), counts, pool);
+        return Placements.answer(spec, calculation, BigInteger.valueOf(count));
+    }
+
+    // counts — число фигур по AttackMasks.PIECES
+    static long count(AttackMasks masks, int[] counts, ForkJoinPool pool) {
+        int total = Arrays.stream(counts).sum();
+        if (total == 0) return 1;
+        if (total > masks.squares()) return 0;
+
+        int[] order = new int[total];
+        for (int t = 0, depth = 0; t < counts.length; t++) {
+            for (int i = 0; i < counts[t]; i++) {
+                order[depth++] = t;
+            }
+        }
+        if (total == 1) {
+            return masks.squares();
+        }
+
+        List<First> tasks = new ArrayList<>(masks.squares());
+        for (int square = 0; square < masks.squares(); square++) {
+            tasks.add(new First(masks, order, square));
+        }
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            long sum = 0;
+            for (First task : ForkJoinTask.invokeAll(tasks)) {
+                sum += task.join();
+            }
+            return sum;
+        }));
+    }
+
+    private static final class First extends RecursiveTask<Long> {
+        private final AttackMasks masks;
+        private final int[] order;
+        private final int square;
+
+        First(AttackMasks masks, int[] order, int square) {
+            this.masks = masks;
+            this.order = order;
+            this.square = square;
+        }
+
+        @Override
+        protected Long compute() {
+            Search search = new Search(masks, order);
+            search.place(0, square);
+            return search.count(1, order[1] == order[0] ? square + 1 : 0);
+        }
+    }
+
+    /**
+     * Перебор с заранее выделенными массивами на каждую глубину: рекурсия ничего не выделяет.
+     */
+    static final class Search {
+        private final AttackMasks masks;
+        private final int[] order;
+        private final int words;
+        private final int squares;
+        // blocked[depth] — занятые и битые клетки перед постановкой фигуры depth
+        private final long[][] blocked;
+        // threat[depth][type] — клетки, с которых фигура type била бы уже стоящую
+        private final long[][][] threat;
+        private final long[][] tables = new long[AttackMasks.PIECES.length][];
+
+        Search(AttackMasks masks, int[] order) {
+            this.masks = masks;
+            this.order = order;
+            this.words = masks.words();
+            this.squares = masks.squares();
+            this.blocked = new long[order.length + 1][words];
+            this.threat = new long[order.length + 1][AttackMasks.PIECES.length][words];
+            for (int t = 0; t < tables.length; t++) {
+                tables[t] = masks.table(AttackMasks.PIECES[t]);
+            }
+        }
+
+        // Ставит фигуру depth на square: заполняет состояние глубины depth + 1
+        void place(int depth, int square) {
+            long[] mask = tables[order[depth]];
+            int offset = masks.offset(square);
+            long[] from = blocked[depth];
+            long[] to = blocked[depth + 1];
+            for (int w = 0; w < words; w++) {
+                to[w] = from[w] | mask[offset + w];
+            }
+            to[square / Long.SIZE] |= 1L << square;
+            // Нужны только виды фигур, которые ещё будут ставиться
+            for (int t = order[depth + 1]; t < tables.length; t++) {
+                long[] threatFrom = threat[depth][t];
+                long[] threatTo = threat[depth + 1][t];
+                long[] table = tables[t];
+                for (int w = 0; w < words; w++) {
+                    threatTo[w] = threatFrom[w] | table[offset + w];
+                }
+            }
+        }
+
+        // Расстановки фигур с depth до конца, фигура depth — на клетке не меньше start
+        long count(int depth, int start) {
+            long[] taken = blocked[depth];
+            long[] attacking = threat[depth][order[depth]];
+            boolean last = depth == order.length - 1;
+            boolean same = !last && order[depth + 1] == order[depth];
+            long total = 0;
+            for (int w = start / Long.SIZE; w < words; w++) {
+                long free = ~(taken[w] | attacking[w]);
+                if (w == start / Long.SIZE) free &= -1L << start;
+                if (w == words - 1 && squares % Long.SIZE != 0) free &= (1L << squares) - 1;
+                if (last) {
+                    total += Long.bitCount(free);
+                    continue;
+                }
+                while (free != 0) {
+                    long bit = free & -free;
+                    free ^= bit;
+                    int square = w * Long.SIZE + Long.numberOfTrailingZeros(bit);
+                    place(depth, square);
+                    total += count(depth + 1, same ? square + 1 : 0);
+                }
+            }
+            return total;
+        }
+    }
+}
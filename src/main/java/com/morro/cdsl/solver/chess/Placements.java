@@ -0,0 +1,64 @@
+package com.morro.cdsl.solver.chess;
+
+import com.morro.cdsl.solver.Binomials;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ChessPiece;
+import com.morro.cdsl.spec.ChessSpec;
+
+import java.math.BigInteger;
+
+/**
+ * Общее для решателей CHESS. Фигуры одного вида неразличимы, расстановка — выбор клеток
+ * для каждого вида. Решатели считают мирные расстановки (никто никого не бьёт); ATTACKING —
+ * хотя бы одна пара бьёт друг друга — получается дополнением до числа всех расстановок.
+ *
+ * Перекрытие линий дальнобойных фигур на ответ не влияет: луч упирается в первую фигуру
+ * на своём пути и бьёт её, так что расстановка мирная, только если на лучах нет никого.
+ */
+final class Placements {
+
+    private Placements() {
+    }
+
+    // Все расстановки без условий: C(N, k1) · C(N - k1, k2) · …
+    static BigInteger total(ChessSpec spec) {
+        long squares = (long) spec.height() * spec.width();
+        BigInteger total = BigInteger.ONE;
+        for (ChessPiece piece : ChessPiece.values()) {
+            int count = spec.count(piece);
+            if (count > squares) {
+                return BigInteger.ZERO;
+            }
+            total = total.multiply(Binomials.binomial(Math.toIntExact(squares), count));
+            squares -= count;
+        }
+        return total;
+    }
+
+    static Fraction answer(ChessSpec spec, Calculation calculation, BigInteger peaceful) {
+        BigInteger total = total(spec);
+        BigInteger count = spec.attacking() ? total.subtract(peaceful) : peaceful;
+        if (calculation == Calculation.COMBINATIONS) {
+            return Fraction.valueOf(count);
+        }
+        if (total.signum() == 0) {
+            throw new IllegalArgumentException(spec.totalPieces() + " pieces do not fit a "
+                    + spec.height() + "x" + spec.width() + " board");
+        }
+        return Fraction.of(count, total);
+    }
+
+    // Заданы только фигуры из pieces
+    static boolean only(ChessSpec spec, ChessPiece... pieces) {
+        int listed = 0;
+        for (ChessPiece piece : pieces) {
+            listed += spec.count(piece);
+        }
+        return listed == spec.totalPieces();
+    }
+
+    static boolean validBoard(ChessSpec spec) {
+        return spec.height() > 0 && spec.width() > 0 && (long) spec.height() * spec.width() <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,200 @@
+package com.morro.cdsl.solver.chess;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ChessPiece;
+import com.morro.cdsl.spec.ChessSpec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ферзи без взаимных атак — задача N ферзей и её обобщение на k ферзей на доске h x w.
+ * В строке не больше одного ферзя, поэтому доска проходится по строкам, а занятые столбцы
+ * и диагонали хранятся масками в long и сдвигаются на каждой строке. Свободные клетки
+ * перебираются по младшему биту, рекурсия ничего не выделяет.
+ *
+ * Доска поворачивается так, чтобы ширина была меньшей стороной. Перебор нужен от двух ферзей
+ * до ширины доски; если при этом ширина больше 64 или клеток больше MAX_SQUARES, решатель
+ * не передаёт задачу дальше, а сообщает об этих пределах. Пустые строки пропускаются циклом,
+ * поэтому глубина рекурсии — число ферзей, а не строк. Зеркальная симметрия: первый ферзь
+ * ставится только в левую половину и считается дважды, а если он в среднем столбце — то
+ * в левую половину ставится второй. Строки первого ферзя делятся пополам задачами fork-join,
+ * и лишь для одной строки пары первых двух ферзей становятся отдельными задачами.
+ */
+public final class QueensSolver implements ProblemSolver<ChessSpec> {
+    // Все доски N x N до 64 x 64; перебор по строкам растёт как степень высоты с показателем число ферзей
+    public static final int MAX_SQUARES = Long.SIZE * Long.SIZE;
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CHESS;
+    }
+
+    @Override
+    public Class<ChessSpec> specType() {
+        return ChessSpec.class;
+    }
+
+    @Override
+    public boolean supports(ChessSpec spec, Calculation calculation) {
+        return (calculation == Calculation.PROBABILITY || calculation == Calculation.COMBINATIONS)
+                && Placements.validBoard(spec)
+                && Placements.only(spec, ChessPiece.QUEEN);
+    }
+
+    @Override
+    public Fraction solve(ChessSpec spec, Calculation calculation, ForkJoinPool pool) {
+        int height = Math.max(spec.height(), spec.width());
+        int width = Math.min(spec.height(), spec.width());
+        int queens = spec.count(ChessPiece.QUEEN);
+        // Другие решатели таких досок не берут: лучше назвать предел, чем «нет решателя»
+        if (queens >= 2 && queens <= width && (width > Long.SIZE || (long) height * width > MAX_SQUARES)) {
+            throw new IllegalArgumentException(String.format(
+                    "%d queens on a %dx%d board: the search needs a side of at most %d and at most %d squares",
+                    queens, spec.height(), spec.width(), Long.SIZE, MAX_SQUARES));
+        }
+        long count = count(height, width, queens, pool);
+        return Placements.answer(spec, calculation, BigInteger.valueOf(count));
+    }
+
+    // width <= 64 — не больше height
+    static long count(int height, int width, int queens, ForkJoinPool pool) {
+        if (queens == 0) return 1;
+        if (queens > width) return 0;
+        if (queens == 1) return (long) height * width;
+
+        // Каждая расстановка с префиксом из левой половины стоит за себя и за отражение
+        return 2 * pool.invoke(new FirstRows(new Board(height, width), queens, 0, height - queens + 1));
+    }
+
+    private static final class Board {
+        final int height;
+        final int width;
+        final long full;
+
+        Board(int height, int width) {
+            this.height = height;
+            this.width = width;
+            this.full = width == Long.SIZE ? -1L : (1L << width) - 1;
+        }
+
+        // Сдвиги диагоналей на rows строк; в Java сдвиг берётся по модулю 64, поэтому проверка
+        long shiftLeft(long mask, int rows) {
+            return rows >= Long.SIZE ? 0 : (mask << rows) & full;
+        }
+
+        long shiftRight(long mask, int rows) {
+            return rows >= Long.SIZE ? 0 : mask >>> rows;
+        }
+
+        // Со строки row, осталось поставить left ферзей; cols, ld, rd — атакованные клетки строки row
+        long count(int row, int left, long cols, long ld, long rd) {
+            if (left == 0) return 1;
+            long total = 0;
+            for (int r = row; r <= height - left; r++) {
+                int skipped = r - row;
+                long ldRow = shiftLeft(ld, skipped);
+                long rdRow = shiftRight(rd, skipped);
+                long free = full & ~(cols | ldRow | rdRow);
+                if (left == 1) {
+                    // Диагонали ушли за край — дальше во всех строках одни и те же свободные клетки
+                    if (skipped >= width) {
+                        return total + (long) Long.bitCount(free) * (height - r);
+                    }
+                    total += Long.bitCount(free);
+                    continue;
+                }
+                while (free != 0) {
+                    long bit = free & -free;
+                    free ^= bit;
+                    total += count(r + 1, left - 1, cols | bit, shiftLeft(ldRow | bit, 1), (rdRow | bit) >>> 1);
+                }
+            }
+            return total;
+        }
+    }
+
+    // Первый ферзь в строках [from, to); диапазон делится пополам, пока не останется одна строка
+    private static final class FirstRows extends RecursiveTask<Long> {
+        private final Board board;
+        private final int queens;
+        private final int from;
+        private final int to;
+
+        FirstRows(Board board, int queens, int from, int to) {
+            this.board = board;
+            this.queens = queens;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                FirstRows upper = new FirstRows(board, queens, from, mid);
+                upper.fork();
+                long lower = new FirstRows(board, queens, mid, to).compute();
+                return lower + upper.join();
+            }
+
+            int r1 = from;
+            int width = board.width;
+            int middle = width / 2;
+            List<Prefix> prefixes = new ArrayList<>();
+            for (int c1 = 0; c1 < (width + 1) / 2; c1++) {
+                long first = 1L << c1;
+                boolean center = width % 2 == 1 && c1 == middle;
+                for (int r2 = r1 + 1; r2 <= board.height - queens + 1; r2++) {
+                    int rows = r2 - r1;
+                    long attacked = first | board.shiftLeft(first, rows) | board.shiftRight(first, rows);
+                    long free = board.full & ~attacked;
+                    // Первый ферзь в центре — второй в левой половине, отражения дают остальное
+                    if (center) free &= (1L << middle) - 1;
+                    while (free != 0) {
+                        long second = free & -free;
+                        free ^= second;
+                        long ld = board.shiftLeft(board.shiftLeft(first, rows) | second, 1);
+                        long rd = (board.shiftRight(first, rows) | second) >>> 1;
+                        prefixes.add(new Prefix(board, r2 + 1, queens - 2, first | second, ld, rd));
+                    }
+                }
+            }
+            long sum = 0;
+            for (Prefix prefix : ForkJoinTask.invokeAll(prefixes)) {
+                sum += prefix.join();
+            }
+            return sum;
+        }
+    }
+
+    private static final class Prefix extends RecursiveTask<Long> {
+        private final Board board;
+        private final int row;
+        private final int left;
+        private final long cols;
+        private final long ld;
+        private final long rd;
+
+        Prefix(Board board, int row, int left, long cols, long ld, long rd) {
+            this.board = board;
+            this.row = row;
+            this.left = left;
+            this.cols = cols;
+            this.ld = ld;
+            this.rd = rd;
+        }
+
+        @Override
+        protected Long compute() {
+            return board.count(row, left, cols, ld, rd);
+        }
+    }
+}
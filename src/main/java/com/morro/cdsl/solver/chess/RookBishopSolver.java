@@ -0,0 +1,133 @@
+package com.morro.cdsl.solver.chess;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Binomials;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ChessPiece;
+import com.morro.cdsl.spec.ChessSpec;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Мирные ладьи и мирные слоны без перебора.
+ *
+ * k ладей: выбрать k строк, k столбцов и сопоставить их — C(h, k) · C(w, k) · k!.
+ *
+ * Слоны разных цветов не бьют друг друга, поэтому цвета считаются отдельно и сворачиваются.
+ * Внутри цвета слон — это ладья на доске «диагонали x антидиагонали». Если множества
+ * антидиагоналей, пересекающих диагонали, вложены друг в друга (так на любой квадратной
+ * доске), диагонали идут по возрастанию длины, и i-я даёт L_i - j способов, когда j слонов
+ * уже стоят на более коротких. На прямоугольной доске вложенность обычно нарушается,
+ * такие задачи остаются общему перебору.
+ */
+public final class RookBishopSolver implements ProblemSolver<ChessSpec> {
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CHESS;
+    }
+
+    @Override
+    public Class<ChessSpec> specType() {
+        return ChessSpec.class;
+    }
+
+    @Override
+    public boolean supports(ChessSpec spec, Calculation calculation) {
+        if (calculation != Calculation.PROBABILITY && calculation != Calculation.COMBINATIONS || !Placements.validBoard(spec)) {
+            return false;
+        }
+        if (Placements.only(spec, ChessPiece.ROOK)) {
+            return true;
+        }
+        return Placements.only(spec, ChessPiece.BISHOP)
+                && diagonalLengths(spec.height(), spec.width(), 0) != null
+                && diagonalLengths(spec.height(), spec.width(), 1) != null;
+    }
+
+    @Override
+    public Fraction solve(ChessSpec spec, Calculation calculation, ForkJoinPool pool) {
+        // Ветвление то же, что в supports(): доска без фигур — это ноль ладей
+        BigInteger count = Placements.only(spec, ChessPiece.ROOK)
+                ? rooks(spec.height(), spec.width(), spec.count(ChessPiece.ROOK))
+                : bishops(spec.height(), spec.width(), spec.count(ChessPiece.BISHOP));
+        if (count == null) {
+            throw new IllegalArgumentException("Bishop diagonals of a " + spec.height() + "x" + spec.width()
+                    + " board are not nested");
+        }
+        return Placements.answer(spec, calculation, count);
+    }
+
+    public static BigInteger rooks(int height, int width, int rooks) {
+        if (rooks > Math.min(height, width)) {
+            return BigInteger.ZERO;
+        }
+        return Binomials.binomial(height, rooks).multiply(Binomials.binomial(width, rooks)).multiply(Binomials.factorial(rooks));
+    }
+
+    // null — диагонали этой доски не вложены и формула неприменима
+    public static BigInteger bishops(int height, int width, int bishops) {
+        BigInteger[] white = colour(height, width, 0, bishops);
+        BigInteger[] black = colour(height, width, 1, bishops);
+        if (white == null || black == null) {
+            return null;
+        }
+        BigInteger total = BigInteger.ZERO;
+        for (int j = 0; j <= bishops; j++) {
+            total = total.add(white[j].multiply(black[bishops - j]));
+        }
+        return total;
+    }
+
+    // ways[j] — сколькими способами поставить j слонов на клетки цвета (row + col) % 2 == parity
+    private static BigInteger[] colour(int height, int width, int parity, int bishops) {
+        int[] lengths = diagonalLengths(height, width, parity);
+        if (lengths == null) {
+            return null;
+        }
+        BigInteger[] ways = new BigInteger[bishops + 1];
+        Arrays.fill(ways, BigInteger.ZERO);
+        ways[0] = BigInteger.ONE;
+        for (int i = 0; i < lengths.length; i++) {
+            // j идёт вниз: ways[j - 1] ещё относится к предыдущим диагоналям
+            for (int j = Math.min(bishops, i + 1); j >= 1; j--) {
+                int free = lengths[i] - (j - 1);
+                if (free > 0 && ways[j - 1].signum() != 0) {
+                    ways[j] = ways[j].add(ways[j - 1].multiply(BigInteger.valueOf(free)));
+                }
+            }
+        }
+        return ways;
+    }
+
+    /**
+     * Длины диагоналей (row - col = d) цвета parity по возрастанию, если пересекающие их
+     * антидиагонали образуют цепочку вложенных отрезков; иначе null.
+     */
+    static int[] diagonalLengths(int height, int width, int parity) {
+        // Диагональ d занимает антидиагонали s = 2 col + d при col от max(0, -d) до min(width - 1, height - 1 - d)
+        int[][] spans = new int[height + width - 1][];
+        int count = 0;
+        for (int d = -(width - 1); d <= height - 1; d++) {
+            if (Math.floorMod(d, 2) != parity) continue;
+            int first = Math.max(0, -d);
+            int last = Math.min(width - 1, height - 1 - d);
+            spans[count++] = new int[]{2 * first + d, 2 * last + d};
+        }
+        int[][] sorted = Arrays.copyOf(spans, count);
+        Arrays.sort(sorted, Comparator.comparingInt(span -> span[1] - span[0]));
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && (sorted[i][0] > sorted[i - 1][0] || sorted[i][1] < sorted[i - 1][1])) {
+                return null;
+            }
+            lengths[i] = (sorted[i][1] - sorted[i][0]) / 2 + 1;
+        }
+        return lengths;
+    }
+}
@@ -0,0 +1,322 @@
+package com.morro.cdsl.solver.chess;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.solver.TransferMatrix;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ChessPiece;
+import com.morro.cdsl.spec.ChessSpec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Мирные короли или мирные кони на узкой и сколь угодно высокой доске. Доска проходится по
+ * строкам, состояние — маска последней строки (короли) или двух последних (конь бьёт через
+ * строку). Вес перехода — многочлен x^(фигур в новой строке), обрезанный на степени k,
+ * так что число расставленных фигур идёт в коэффициентах, а не в состоянии.
+ *
+ * До LINEAR_ROWS строк динамика идёт строка за строкой, ей хватает ширины до MAX_KING_WIDTH
+ * и MAX_KNIGHT_WIDTH (у коней на ширине 8 — 4096 состояний). Выше матрица переходов
+ * с многочленами в клетках возводится в степень высоты за O(s³ k² log h), поэтому
+ * там число состояний ограничено MAX_MATRIX_STATES.
+ * Точный ответ — в BigInteger, по модулю — в long (countMod).
+ */
+public final class RowProfileSolver implements ProblemSolver<ChessSpec> {
+    // Пределы ширины для динамики строка за строкой
+    public static final int MAX_KING_WIDTH = 12;
+    public static final int MAX_KNIGHT_WIDTH = 8;
+    public static final int LINEAR_ROWS = 4096;
+    // Только для досок выше LINEAR_ROWS: больше состояний — куб размера матрицы слишком дорог
+    public static final int MAX_MATRIX_STATES = 96;
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CHESS;
+    }
+
+    @Override
+    public Class<ChessSpec> specType() {
+        return ChessSpec.class;
+    }
+
+    @Override
+    public boolean supports(ChessSpec spec, Calculation calculation) {
+        if (calculation != Calculation.PROBABILITY && calculation != Calculation.COMBINATIONS || !Placements.validBoard(spec)) {
+            return false;
+        }
+        ChessPiece piece = Placements.only(spec, ChessPiece.KING) ? ChessPiece.KING
+                : Placements.only(spec, ChessPiece.KNIGHT) ? ChessPiece.KNIGHT : null;
+        int width = Math.min(spec.height(), spec.width());
+        if (piece == null || width > (piece == ChessPiece.KING ? MAX_KING_WIDTH : MAX_KNIGHT_WIDTH)) {
+            return false;
+        }
+        int height = Math.max(spec.height(), spec.width());
+        return height <= LINEAR_ROWS || Profiles.of(piece, width).states() <= MAX_MATRIX_STATES;
+    }
+
+    @Override
+    public Fraction solve(ChessSpec spec, Calculation calculation, ForkJoinPool pool) {
+        ChessPiece piece = spec.count(ChessPiece.KING) > 0 ? ChessPiece.KING : ChessPiece.KNIGHT;
+        int pieces = spec.totalPieces();
+        BigInteger count = count(piece, Math.max(spec.height(), spec.width()), Math.min(spec.height(), spec.width()), pieces);
+        return Placements.answer(spec, calculation, count);
+    }
+
+    public static BigInteger count(ChessPiece piece, int height, int width, int pieces) {
+        if (pieces > (long) height * width) return BigInteger.ZERO;
+        Profiles profiles = Profiles.of(piece, width);
+        BigInteger[][] ways = height <= LINEAR_ROWS
+                ? profiles.linear(height, pieces)
+                : profiles.power(height, pieces);
+        BigInteger total = BigInteger.ZERO;
+        for (BigInteger[] polynomial : ways) {
+            if (polynomial != null) total = total.add(polynomial[pieces]);
+        }
+        return total;
+    }
+
+    public static long countMod(ChessPiece piece, int height, int width, int pieces, long modulus) {
+        if (modulus <= 0 || modulus > TransferMatrix.MAX_MODULUS) {
+            throw new IllegalArgumentException("Modulus out of range: " + modulus);
+        }
+        if (pieces > (long) height * width) return 0;
+        long[][] ways = Profiles.of(piece, width).powerMod(height, pieces, modulus);
+        long total = 0;
+        for (long[] polynomial : ways) {
+            if (polynomial != null) total = (total + polynomial[pieces]) % modulus;
+        }
+        return total;
+    }
+
+    /**
+     * Допустимые профили и переходы между ними: из состояния from[i] в to[i] добавлением
+     * строки с weight[i] фигурами.
+     */
+    static final class Profiles {
+        private final int states;
+        private final int start;
+        private final int[] from;
+        private final int[] to;
+        private final int[] weight;
+
+        private Profiles(int states, int start, List<int[]> transitions) {
+            this.states = states;
+            this.start = start;
+            this.from = new int[transitions.size()];
+            this.to = new int[transitions.size()];
+            this.weight = new int[transitions.size()];
+            for (int i = 0; i < transitions.size(); i++) {
+                from[i] = transitions.get(i)[0];
+                to[i] = transitions.get(i)[1];
+                weight[i] = transitions.get(i)[2];
+            }
+        }
+
+        static Profiles of(ChessPiece piece, int width) {
+            return switch (piece) {
+                case KING -> kings(width);
+                case KNIGHT -> knights(width);
+                default -> throw new IllegalArgumentException("No row profile for " + piece);
+            };
+        }
+
+        int states() {
+            return states;
+        }
+
+        // Состояние — строка без соседних королей; новая строка не касается предыдущей
+        private static Profiles kings(int width) {
+            int full = (1 << width) - 1;
+            int[] index = new int[1 << width];
+            Arrays.fill(index, -1);
+            List<Integer> rows = new ArrayList<>();
+            for (int row = 0; row <= full; row++) {
+                if ((row & row << 1) == 0) {
+                    index[row] = rows.size();
+                    rows.add(row);
+                }
+            }
+            List<int[]> transitions = new ArrayList<>();
+            for (int a : rows) {
+                int touched = (a | a << 1 | a >> 1) & full;
+                for (int b : rows) {
+                    if ((b & touched) == 0) {
+                        transitions.add(new int[]{index[a], index[b], Integer.bitCount(b)});
+                    }
+                }
+            }
+            return new Profiles(rows.size(), index[0], transitions);
+        }
+
+        // Состояние — две последние строки (p, q); конь бьёт на две колонки через строку и на одну через две
+        private static Profiles knights(int width) {
+            int full = (1 << width) - 1;
+            int size = 1 << width;
+            int[] index = new int[size * size];
+            Arrays.fill(index, -1);
+            List<int[]> pairs = new ArrayList<>();
+            for (int p = 0; p < size; p++) {
+                for (int q = 0; q < size; q++) {
+                    if ((q & (p << 2 | p >> 2) & full) == 0) {
+                        index[p * size + q] = pairs.size();
+                        pairs.add(new int[]{p, q});
+                    }
+                }
+            }
+            List<int[]> transitions = new ArrayList<>();
+            for (int[] pair : pairs) {
+                int p = pair[0];
+                int q = pair[1];
+                int attacked = ((q << 2 | q >> 2) | (p << 1 | p >> 1)) & full;
+                for (int r = 0; r < size; r++) {
+                    if ((r & attacked) == 0) {
+                        transitions.add(new int[]{index[p * size + q], index[q * size + r], Integer.bitCount(r)});
+                    }
+                }
+            }
+            return new Profiles(pairs.size(), index[0], transitions);
+        }
+
+        // Многочлены по состояниям после height строк; null — нулевой многочлен
+        BigInteger[][] linear(int height, int pieces) {
+            BigInteger[][] ways = new BigInteger[states][];
+            ways[start] = monomial(0, pieces);
+            for (int row = 0; row < height; row++) {
+                BigInteger[][] next = new BigInteger[states][];
+                for (int i = 0; i < from.length; i++) {
+                    BigInteger[] source = ways[from[i]];
+                    if (source == null || weight[i] > pieces) continue;
+                    BigInteger[] target = next[to[i]];
+                    if (target == null) {
+                        target = next[to[i]] = zeros(pieces);
+                    }
+                    for (int j = 0; j + weight[i] <= pieces; j++) {
+                        if (source[j].signum() != 0) {
+                            target[j + weight[i]] = target[j + weight[i]].add(source[j]);
+                        }
+                    }
+                }
+                ways = next;
+            }
+            return ways;
+        }
+
+        BigInteger[][] power(long height, int pieces) {
+            BigInteger[][][] matrix = new BigInteger[states][states][];
+            for (int i = 0; i < from.length; i++) {
+                if (weight[i] <= pieces) {
+                    matrix[from[i]][to[i]] = monomial(weight[i], pieces);
+                }
+            }
+            BigInteger[][] result = new BigInteger[states][];
+            result[start] = monomial(0, pieces);
+            for (long e = height; e > 0; e >>>= 1) {
+                if ((e & 1) != 0) {
+                    result = multiply(result, matrix, pieces);
+                }
+                if (e > 1) {
+                    BigInteger[][][] squared = new BigInteger[states][][];
+                    for (int s = 0; s < states; s++) {
+                        squared[s] = multiply(matrix[s], matrix, pieces);
+                    }
+                    matrix = squared;
+                }
+            }
+            return result;
+        }
+
+        // Строка многочленов на матрицу многочленов, с обрезкой на степени pieces
+        private BigInteger[][] multiply(BigInteger[][] vector, BigInteger[][][] matrix, int pieces) {
+            BigInteger[][] result = new BigInteger[states][];
+            for (int l = 0; l < states; l++) {
+                BigInteger[] x = vector[l];
+                if (x == null) continue;
+                for (int j = 0; j < states; j++) {
+                    BigInteger[] y = matrix[l][j];
+                    if (y == null) continue;
+                    BigInteger[] target = result[j];
+                    if (target == null) {
+                        target = result[j] = zeros(pieces);
+                    }
+                    for (int a = 0; a <= pieces; a++) {
+                        if (x[a].signum() == 0) continue;
+                        for (int b = 0; a + b <= pieces; b++) {
+                            if (y[b].signum() != 0) {
+                                target[a + b] = target[a + b].add(x[a].multiply(y[b]));
+                            }
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        // То же по модулю: и для малых высот возведение в степень, шаг за шагом оно не медленнее
+        long[][] powerMod(long height, int pieces, long modulus) {
+            long[][][] matrix = new long[states][states][];
+            for (int i = 0; i < from.length; i++) {
+                if (weight[i] <= pieces) {
+                    long[] monomial = new long[pieces + 1];
+                    monomial[weight[i]] = 1 % modulus;
+                    matrix[from[i]][to[i]] = monomial;
+                }
+            }
+            long[][] result = new long[states][];
+            result[start] = new long[pieces + 1];
+            result[start][0] = 1 % modulus;
+            for (long e = height; e > 0; e >>>= 1) {
+                if ((e & 1) != 0) {
+                    result = multiplyMod(result, matrix, pieces, modulus);
+                }
+                if (e > 1) {
+                    long[][][] squared = new long[states][][];
+                    for (int s = 0; s < states; s++) {
+                        squared[s] = multiplyMod(matrix[s], matrix, pieces, modulus);
+                    }
+                    matrix = squared;
+                }
+            }
+            return result;
+        }
+
+        private long[][] multiplyMod(long[][] vector, long[][][] matrix, int pieces, long modulus) {
+            long[][] result = new long[states][];
+            for (int l = 0; l < states; l++) {
+                long[] x = vector[l];
+                if (x == null) continue;
+                for (int j = 0; j < states; j++) {
+                    long[] y = matrix[l][j];
+                    if (y == null) continue;
+                    long[] target = result[j];
+                    if (target == null) {
+                        target = result[j] = new long[pieces + 1];
+                    }
+                    for (int a = 0; a <= pieces; a++) {
+                        if (x[a] == 0) continue;
+                        for (int b = 0; a + b <= pieces; b++) {
+                            target[a + b] = (target[a + b] + x[a] * y[b]) % modulus;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static BigInteger[] monomial(int degree, int pieces) {
+            BigInteger[] polynomial = zeros(pieces);
+            polynomial[degree] = BigInteger.ONE;
+            return polynomial;
+        }
+
+        private static BigInteger[] zeros(int pieces) {
+            BigInteger[] polynomial = new BigInteger[pieces + 1];
+            Arrays.fill(polynomial, BigInteger.ZERO);
+            return polynomial;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.morro.cdsl.solver.chess;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.ChessPiece;
+import com.morro.cdsl.spec.ChessSpec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * DISTINCT_COMBINATIONS: мирные расстановки с точностью до поворотов и отражений доски.
+ * По лемме Бернсайда число классов — среднее по группе симметрий числа расстановок,
+ * которые симметрия не меняет. У прямоугольной доски четыре симметрии, у квадратной восемь.
+ *
+ * Слагаемое тождественной симметрии — обычное число расстановок, его даёт самый быстрый
+ * из точных решателей CHESS. Остальные симметрии разбивают клетки на циклы, и неподвижная
+ * расстановка ставит фигуры одного вида на весь цикл сразу. Такие расстановки ищет тот же
+ * перебор по маскам атак, что и PlacementSolver, только по циклам: циклов вдвое-вчетверо
+ * меньше, чем клеток, и перебор намного короче обычного счёта. Симметрии считаются
+ * параллельно.
+ */
+public final class SymmetrySolver implements ProblemSolver<ChessSpec> {
+    private static final List<ProblemSolver<ChessSpec>> PLAIN = List.of(
+            new RookBishopSolver(), new RowProfileSolver(), new QueensSolver(), new PlacementSolver());
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.CHESS;
+    }
+
+    @Override
+    public Class<ChessSpec> specType() {
+        return ChessSpec.class;
+    }
+
+    @Override
+    public boolean supports(ChessSpec spec, Calculation calculation) {
+        return calculation == Calculation.DISTINCT_COMBINATIONS && !spec.attacking() && Placements.validBoard(spec)
+                && Placements.only(spec, AttackMasks.PIECES)
+                && (long) spec.height() * spec.width() <= PlacementSolver.MAX_SQUARES;
+    }
+
+    @Override
+    public Fraction solve(ChessSpec spec, Calculation calculation, ForkJoinPool pool) {
+        int height = spec.height();
+        int width = spec.width();
+        AttackMasks masks = AttackMasks.of(height, width);
+        int[] counts = new int[AttackMasks.PIECES.length];
+        for (int t = 0; t < counts.length; t++) {
+            counts[t] = spec.count(AttackMasks.PIECES[t]);
+        }
+
+        List<int[]> symmetries = symmetries(height, width);
+        List<Fixed> tasks = new ArrayList<>();
+        for (int[] symmetry : symmetries.subList(1, symmetries.size())) {
+            tasks.add(new Fixed(masks, counts, symmetry));
+        }
+        BigInteger total = pool.invoke(ForkJoinTask.adapt(() -> {
+            BigInteger sum = BigInteger.ZERO;
+            for (Fixed task : ForkJoinTask.invokeAll(tasks)) {
+                sum = sum.add(BigInteger.valueOf(task.join()));
+            }
+            return sum;
+        }));
+        total = total.add(plain(spec, pool));
+
+        BigInteger[] orbits = total.divideAndRemainder(BigInteger.valueOf(symmetries.size()));
+        if (orbits[1].signum() != 0) {
+            throw new IllegalStateException("Burnside sum " + total + " is not divisible by " + symmetries.size());
+        }
+        return Fraction.valueOf(orbits[0]);
+    }
+
+    // Все расстановки — неподвижные точки тождественной симметрии
+    private static BigInteger plain(ChessSpec spec, ForkJoinPool pool) {
+        ChessSpec combinations = new ChessSpec(spec.name(), Calculation.COMBINATIONS, spec.height(), spec.width(),
+                pieces(spec), false);
+        for (ProblemSolver<ChessSpec> solver : PLAIN) {
+            if (solver.supports(combinations, Calculation.COMBINATIONS)) {
+                return solver.solve(combinations, Calculation.COMBINATIONS, pool).numerator();
+            }
+        }
+        throw new IllegalStateException("No exact solver for " + combinations);
+    }
+
+    private static int[] pieces(ChessSpec spec) {
+        int[] pieces = new int[ChessPiece.values().length];
+        for (ChessPiece piece : ChessPiece.values()) {
+            pieces[piece.ordinal()] = spec.count(piece);
+        }
+        return pieces;
+    }
+
+    // Перестановки клеток row * width + col; первая — тождественная
+    static List<int[]> symmetries(int height, int width) {
+        List<int[]> symmetries = new ArrayList<>();
+        int squares = height * width;
+        int transforms = height == width ? 8 : 4;
+        for (int g = 0; g < transforms; g++) {
+            int[] permutation = new int[squares];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    int r = height - 1 - row;
+                    int c = width - 1 - col;
+                    int image = switch (g) {
+                        case 0 -> row * width + col;
+                        case 1 -> r * width + c;          // поворот на 180°
+                        case 2 -> row * width + c;        // отражение слева направо
+                        case 3 -> r * width + col;        // отражение сверху вниз
+                        case 4 -> col * width + r;        // поворот на 90°
+                        case 5 -> c * width + row;        // поворот на 270°
+                        case 6 -> col * width + row;      // главная диагональ
+                        default -> c * width + r;         // побочная диагональ
+                    };
+                    permutation[row * width + col] = image;
+                }
+            }
+            symmetries.add(permutation);
+        }
+        return symmetries;
+    }
+
+    /**
+     * Расстановки, неподвижные при одной симметрии. Для каждого цикла клеток и вида фигур
+     * заранее собраны маска клеток цикла и объединение атак с них; цикл годится для вида,
+     * если фигуры на его клетках не бьют друг друга.
+     */
+    private static final class Fixed extends RecursiveTask<Long> {
+        private final int[] counts;
+        private final int words;
+        private final int[][] cycles;
+        private final long[][] cells;
+        // attacks[type][cycle] — клетки, которые бьют фигуры вида type, стоящие на всём цикле
+        private final long[][][] attacks;
+        private final boolean[][] fits;
+        private long[][] blocked;
+        private long[][][] threat;
+
+        Fixed(AttackMasks masks, int[] counts, int[] permutation) {
+            this.counts = counts;
+            this.words = masks.words();
+            this.cycles = cycles(permutation);
+            this.cells = new long[cycles.length][words];
+            this.attacks = new long[counts.length][cycles.length][words];
+            this.fits = new boolean[counts.length][cycles.length];
+            for (int i = 0; i < cycles.length; i++) {
+                for (int square : cycles[i]) {
+                    cells[i][square / Long.SIZE] |= 1L << square;
+                }
+                for (int t = 0; t < counts.length; t++) {
+                    long[] table = masks.table(AttackMasks.PIECES[t]);
+                    for (int square : cycles[i]) {
+                        for (int w = 0; w < words; w++) {
+                            attacks[t][i][w] |= table[masks.offset(square) + w];
+                        }
+                    }
+                    fits[t][i] = disjoint(attacks[t][i], cells[i]);
+                }
+            }
+        }
+
+        @Override
+        protected Long compute() {
+            int total = Arrays.stream(counts).sum();
+            blocked = new long[total + 1][words];
+            threat = new long[total + 1][counts.length][words];
+            return count(0, 0, 0, 0);
+        }
+
+        // Вид type, из него осталось поставить counts[type] - used; циклы берутся с номера first
+        private long count(int type, int used, int first, int depth) {
+            while (type < counts.length && used == counts[type]) {
+                type++;
+                used = 0;
+                first = 0;
+            }
+            if (type == counts.length) return 1;
+
+            long total = 0;
+            int left = counts[type] - used;
+            for (int i = first; i < cycles.length; i++) {
+                if (cycles[i].length > left || !fits[type][i]
+                        || !disjoint(cells[i], blocked[depth]) || !disjoint(cells[i], threat[depth][type])) {
+                    continue;
+                }
+                for (int w = 0; w < words; w++) {
+                    blocked[depth + 1][w] = blocked[depth][w] | cells[i][w] | attacks[type][i][w];
+                    for (int t = type; t < counts.length; t++) {
+                        threat[depth + 1][t][w] = threat[depth][t][w] | attacks[t][i][w];
+                    }
+                }
+                total += count(type, used + cycles[i].length, i + 1, depth + 1);
+            }
+            return total;
+        }
+
+        private static boolean disjoint(long[] a, long[] b) {
+            for (int w = 0; w < a.length; w++) {
+                if ((a[w] & b[w]) != 0) return false;
+            }
+            return true;
+        }
+
+        private static int[][] cycles(int[] permutation) {
+            boolean[] seen = new boolean[permutation.length];
+            List<int[]> cycles = new ArrayList<>();
+            for (int start = 0; start < permutation.length; start++) {
+                if (seen[start]) continue;
+                List<Integer> cycle = new ArrayList<>();
+                for (int square = start; !seen[square]; square = permutation[square]) {
+                    seen[square] = true;
+                    cycle.add(square);
+                }
+                cycles.add(cycle.stream().mapToInt(Integer::intValue).toArray());
+            }
+            return cycles.toArray(new int[0][]);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.morro.cdsl.solver.words;
+
+/**
+ * Буквы ALPHABET без повторов, в порядке первого появления и в верхнем регистре,
+ * с делением на гласные и согласные. Гласные — AEIOU латиницы и АЕЁИОУЫЭЮЯ кириллицы,
+ * все остальные символы считаются согласными.
+ */
+public final class Alphabet {
+    private static final String VOWELS = "AEIOUАЕЁИОУЫЭЮЯ";
+
+    private final char[] letters;
+    private final boolean[] vowel;
+    private final int vowels;
+
+    private Alphabet(char[] letters, boolean[] vowel, int vowels) {
+        this.letters = letters;
+        this.vowel = vowel;
+        this.vowels = vowels;
+    }
+
+    public static Alphabet of(String text) {
+        StringBuilder distinct = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toUpperCase(text.charAt(i));
+            if (!Character.isWhitespace(c) && distinct.indexOf(String.valueOf(c)) < 0) {
+                distinct.append(c);
+            }
+        }
+        char[] letters = distinct.toString().toCharArray();
+        boolean[] vowel = new boolean[letters.length];
+        int vowels = 0;
+        for (int i = 0; i < letters.length; i++) {
+            vowel[i] = VOWELS.indexOf(letters[i]) >= 0;
+            vowels += vowel[i] ? 1 : 0;
+        }
+        return new Alphabet(letters, vowel, vowels);
+    }
+
+    public int size() {
+        return letters.length;
+    }
+
+    public char letter(int i) {
+        return letters[i];
+    }
+
+    public boolean isVowel(int i) {
+        return vowel[i];
+    }
+
+    // WordAutomaton.VOWEL или WordAutomaton.CONSONANT
+    public int letterClass(int i) {
+        return vowel[i] ? WordAutomaton.VOWEL : WordAutomaton.CONSONANT;
+    }
+
+    public int vowels() {
+        return vowels;
+    }
+
+    public int consonants() {
+        return letters.length - vowels;
+    }
+
+    public int classSize(int letterClass) {
+        return letterClass == WordAutomaton.VOWEL ? vowels() : consonants();
+    }
+}
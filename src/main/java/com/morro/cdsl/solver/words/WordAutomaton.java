@@ -0,0 +1,134 @@
+package com.morro.cdsl.solver.words;
+
+import com.morro.cdsl.spec.WordCondition;
+
+/**
+ * Условия WORDS, скомпилированные в автомат над классами букв (гласная / согласная).
+ *
+ * Условия на соседние буквы (ALTERNATING, CONSONANT_FOLLOWED_BY_VOWEL,
+ * VOWEL_FOLLOWED_BY_CONSONANT) дают автомат из трёх состояний: начало, после гласной,
+ * после согласной. Условия на число гласных и согласных проверяются счётчиком в конце:
+ * автомату нужен только итоговый счёт гласных.
+ *
+ * PALINDROME сворачивает автомат: читается только первая половина слова, вторая — её
+ * отражение. Пара соседних букв первой половины встречается во второй в обратном порядке,
+ * поэтому переход проверяет пару в обе стороны, первая буква — ещё и последняя буква слова,
+ * а в середине слова чётной длины стоят две одинаковые буквы.
+ *
+ * Под условиями понимается: CONSONANT_FOLLOWED_BY_VOWEL — за каждой согласной сразу идёт
+ * гласная (слово не кончается согласной), VOWEL_FOLLOWED_BY_CONSONANT — наоборот.
+ */
+public final class WordAutomaton {
+    public static final int VOWEL = 0;
+    public static final int CONSONANT = 1;
+    public static final int CLASSES = 2;
+
+    public static final int START = 0;
+    public static final int STATES = 3;
+
+    enum Balance { ANY, MORE_VOWELS, MORE_CONSONANTS, EQUAL, NEVER }
+
+    // next[state][class] — следующее состояние или -1; состояние после буквы класса c — c + 1
+    private final int[][] next;
+    private final boolean[] accept;
+    private final Balance balance;
+    private final boolean palindrome;
+    private final int length;
+
+    private WordAutomaton(int[][] next, boolean[] accept, Balance balance, boolean palindrome, int length) {
+        this.next = next;
+        this.accept = accept;
+        this.balance = balance;
+        this.palindrome = palindrome;
+        this.length = length;
+    }
+
+    public static WordAutomaton compile(int conditions, int length) {
+        boolean[][] allowed = {{true, true}, {true, true}};
+        boolean[] canEnd = {true, true};
+        if (has(conditions, WordCondition.ALTERNATING)) {
+            allowed[VOWEL][VOWEL] = allowed[CONSONANT][CONSONANT] = false;
+        }
+        if (has(conditions, WordCondition.CONSONANT_FOLLOWED_BY_VOWEL)) {
+            allowed[CONSONANT][CONSONANT] = false;
+            canEnd[CONSONANT] = false;
+        }
+        if (has(conditions, WordCondition.VOWEL_FOLLOWED_BY_CONSONANT)) {
+            allowed[VOWEL][VOWEL] = false;
+            canEnd[VOWEL] = false;
+        }
+
+        boolean palindrome = has(conditions, WordCondition.PALINDROME);
+        int[][] next = new int[STATES][CLASSES];
+        boolean[] accept = new boolean[STATES];
+        accept[START] = true;
+        for (int c = 0; c < CLASSES; c++) {
+            // Первая буква палиндрома — она же последняя
+            next[START][c] = !palindrome || canEnd[c] ? c + 1 : -1;
+            for (int p = 0; p < CLASSES; p++) {
+                boolean ok = allowed[p][c] && (!palindrome || allowed[c][p]);
+                next[p + 1][c] = ok ? c + 1 : -1;
+            }
+            accept[c + 1] = palindrome ? length % 2 == 1 || allowed[c][c] : canEnd[c];
+        }
+        return new WordAutomaton(next, accept, balance(conditions), palindrome, length);
+    }
+
+    private static Balance balance(int conditions) {
+        boolean more = has(conditions, WordCondition.MORE_VOWELS_THAN_CONSONANTS);
+        boolean fewer = has(conditions, WordCondition.MORE_CONSONANTS_THAN_VOWELS);
+        boolean equal = has(conditions, WordCondition.EQUAL_VOWELS_CONSONANTS);
+        if ((more ? 1 : 0) + (fewer ? 1 : 0) + (equal ? 1 : 0) > 1) return Balance.NEVER;
+        if (more) return Balance.MORE_VOWELS;
+        if (fewer) return Balance.MORE_CONSONANTS;
+        if (equal) return Balance.EQUAL;
+        return Balance.ANY;
+    }
+
+    private static boolean has(int conditions, WordCondition condition) {
+        return (conditions & condition.mask()) != 0;
+    }
+
+    public int next(int state, int letterClass) {
+        return next[state][letterClass];
+    }
+
+    public boolean accepts(int state) {
+        return accept[state];
+    }
+
+    public boolean palindrome() {
+        return palindrome;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    // Сколько букв выбирается свободно: у палиндрома — первая половина с серединой
+    public int steps() {
+        return palindrome ? (length + 1) / 2 : length;
+    }
+
+    // Нужен ли счёт гласных; без него достаточно состояния автомата
+    public boolean counts() {
+        return balance != Balance.ANY;
+    }
+
+    // Выбрано chosen гласных, автомат в state — подходит ли слово по числу гласных
+    public boolean balanced(int chosen, int state) {
+        int vowels = chosen;
+        if (palindrome) {
+            boolean middleVowel = length % 2 == 1 && state == VOWEL + 1;
+            vowels = 2 * chosen - (middleVowel ? 1 : 0);
+        }
+        int consonants = length - vowels;
+        return switch (balance) {
+            case ANY -> true;
+            case MORE_VOWELS -> vowels > consonants;
+            case MORE_CONSONANTS -> consonants > vowels;
+            case EQUAL -> vowels == consonants;
+            case NEVER -> false;
+        };
+    }
+}
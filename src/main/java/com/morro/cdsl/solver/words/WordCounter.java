@@ -0,0 +1,219 @@
+package com.morro.cdsl.solver.words;
+
+import com.morro.cdsl.solver.TransferMatrix;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Точное число слов по автомату условий. Перебираются не буквы, а классы: динамика идёт
+ * по позициям, состояние — состояние автомата и, если есть условия на число гласных,
+ * сколько гласных уже выбрано. Буквы учитываются весом: каждая позиция класса c
+ * даёт множитель «число букв класса c». Без условий на число гласных автомат постоянного
+ * размера, и для длинных слов матрица его переходов возводится в степень.
+ */
+public final class WordCounter {
+    // Дальше линейная динамика в BigInteger медленнее возведения матрицы в степень
+    private static final int MATRIX_STEPS = 256;
+
+    private WordCounter() {
+    }
+
+    public static BigInteger count(WordAutomaton automaton, Alphabet alphabet) {
+        if (!automaton.counts()) {
+            if (automaton.steps() > MATRIX_STEPS) {
+                BigInteger[][] matrix = new BigInteger[WordAutomaton.STATES][WordAutomaton.STATES];
+                long[][] transitions = transitions(automaton, alphabet);
+                for (int i = 0; i < WordAutomaton.STATES; i++) {
+                    for (int j = 0; j < WordAutomaton.STATES; j++) {
+                        matrix[i][j] = BigInteger.valueOf(transitions[i][j]);
+                    }
+                }
+                BigInteger[] start = zeros(WordAutomaton.STATES);
+                start[WordAutomaton.START] = BigInteger.ONE;
+                BigInteger[] ways = TransferMatrix.apply(start, matrix, automaton.steps());
+                BigInteger total = BigInteger.ZERO;
+                for (int state = 0; state < WordAutomaton.STATES; state++) {
+                    if (automaton.accepts(state)) total = total.add(ways[state]);
+                }
+                return total;
+            }
+            return weighted(automaton, BigInteger.valueOf(alphabet.vowels()), BigInteger.valueOf(alphabet.consonants()));
+        }
+        BigInteger[] patterns = patterns(automaton);
+        BigInteger vowels = BigInteger.valueOf(alphabet.vowels());
+        BigInteger consonants = BigInteger.valueOf(alphabet.consonants());
+        int steps = automaton.steps();
+        BigInteger total = BigInteger.ZERO;
+        for (int chosen = 0; chosen <= steps; chosen++) {
+            if (patterns[chosen].signum() != 0) {
+                total = total.add(patterns[chosen].multiply(vowels.pow(chosen)).multiply(consonants.pow(steps - chosen)));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Число слов по модулю для LENGTH в тысячи и миллионы: матрица переходов автомата
+     * возводится в степень в long за O(log LENGTH). Годится только для автоматов постоянного
+     * размера — условия на число гласных требуют счётчика и здесь не поддерживаются.
+     */
+    public static long countMod(WordAutomaton automaton, Alphabet alphabet, long modulus) {
+        requireFixedSize(automaton);
+        long[] start = new long[WordAutomaton.STATES];
+        start[WordAutomaton.START] = 1;
+        long[] ways = TransferMatrix.applyMod(start, transitions(automaton, alphabet), automaton.steps(), modulus);
+        long total = 0;
+        for (int state = 0; state < WordAutomaton.STATES; state++) {
+            if (automaton.accepts(state)) total = (total + ways[state]) % modulus;
+        }
+        return total;
+    }
+
+    // Натуральный логарифм числа слов; минус бесконечность, если слов нет
+    public static double log(WordAutomaton automaton, Alphabet alphabet) {
+        requireFixedSize(automaton);
+        long[][] transitions = transitions(automaton, alphabet);
+        double[][] matrix = new double[WordAutomaton.STATES][WordAutomaton.STATES];
+        boolean[] accepting = new boolean[WordAutomaton.STATES];
+        for (int i = 0; i < WordAutomaton.STATES; i++) {
+            accepting[i] = automaton.accepts(i);
+            for (int j = 0; j < WordAutomaton.STATES; j++) {
+                matrix[i][j] = transitions[i][j];
+            }
+        }
+        double[] start = new double[WordAutomaton.STATES];
+        start[WordAutomaton.START] = 1;
+        return TransferMatrix.logApply(start, matrix, automaton.steps(), accepting);
+    }
+
+    // matrix[s][t] — сколькими буквами автомат переходит из s в t
+    private static long[][] transitions(WordAutomaton automaton, Alphabet alphabet) {
+        long[][] matrix = new long[WordAutomaton.STATES][WordAutomaton.STATES];
+        for (int state = 0; state < WordAutomaton.STATES; state++) {
+            for (int c = 0; c < WordAutomaton.CLASSES; c++) {
+                int target = automaton.next(state, c);
+                if (target >= 0) {
+                    matrix[state][target] += alphabet.classSize(c);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    private static void requireFixedSize(WordAutomaton automaton) {
+        if (automaton.counts()) {
+            throw new IllegalArgumentException("Vowel count conditions need the exact counter");
+        }
+    }
+
+    /**
+     * UNIQUE YES: буквы не повторяются. Какие именно буквы использованы, неважно — слова с
+     * заданной последовательностью классов и a гласными дают v·(v-1)·…·(v-a+1) способов
+     * выбрать гласные и столько же по убывающему факториалу для согласных. Поэтому считаются
+     * последовательности классов по числу гласных, а веса — убывающие факториалы размеров
+     * классов. Палиндром длиннее одной буквы повторяет буквы и невозможен, слово длиннее
+     * алфавита — тоже; при ALTERNATING допустимых последовательностей не больше двух.
+     */
+    public static BigInteger countUnique(WordAutomaton automaton, Alphabet alphabet) {
+        int length = automaton.length();
+        if (length > alphabet.size() || automaton.palindrome() && length > 1) {
+            return BigInteger.ZERO;
+        }
+        BigInteger[] patterns = patterns(automaton);
+        int steps = automaton.steps();
+        BigInteger total = BigInteger.ZERO;
+        for (int chosen = 0; chosen <= steps; chosen++) {
+            if (patterns[chosen].signum() != 0) {
+                BigInteger letters = falling(alphabet.vowels(), chosen).multiply(falling(alphabet.consonants(), steps - chosen));
+                total = total.add(patterns[chosen].multiply(letters));
+            }
+        }
+        return total;
+    }
+
+    // n·(n-1)·…·(n-k+1); ноль, если k > n
+    static BigInteger falling(int n, int k) {
+        if (k > n) return BigInteger.ZERO;
+        BigInteger product = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            product = product.multiply(BigInteger.valueOf(n - i));
+        }
+        return product;
+    }
+
+    // Линейная динамика с весами букв: O(steps) шагов по трём состояниям
+    static BigInteger weighted(WordAutomaton automaton, BigInteger vowels, BigInteger consonants) {
+        BigInteger[] weight = {vowels, consonants};
+        BigInteger[] ways = zeros(WordAutomaton.STATES);
+        ways[WordAutomaton.START] = BigInteger.ONE;
+        for (int step = 0; step < automaton.steps(); step++) {
+            BigInteger[] next = zeros(WordAutomaton.STATES);
+            for (int state = 0; state < WordAutomaton.STATES; state++) {
+                if (ways[state].signum() == 0) continue;
+                for (int c = 0; c < WordAutomaton.CLASSES; c++) {
+                    int target = automaton.next(state, c);
+                    if (target >= 0) {
+                        next[target] = next[target].add(ways[state].multiply(weight[c]));
+                    }
+                }
+            }
+            ways = next;
+        }
+
+        BigInteger total = BigInteger.ZERO;
+        for (int state = 0; state < WordAutomaton.STATES; state++) {
+            if (automaton.accepts(state) && automaton.balanced(0, state)) {
+                total = total.add(ways[state]);
+            }
+        }
+        return total;
+    }
+
+    // Число допустимых последовательностей классов по числу выбранных гласных
+    static BigInteger[] patterns(WordAutomaton automaton) {
+        int steps = automaton.steps();
+        BigInteger[][] ways = new BigInteger[WordAutomaton.STATES][];
+        for (int state = 0; state < WordAutomaton.STATES; state++) {
+            ways[state] = zeros(steps + 1);
+        }
+        ways[WordAutomaton.START][0] = BigInteger.ONE;
+
+        for (int step = 0; step < steps; step++) {
+            BigInteger[][] next = new BigInteger[WordAutomaton.STATES][];
+            for (int state = 0; state < WordAutomaton.STATES; state++) {
+                next[state] = zeros(steps + 1);
+            }
+            for (int state = 0; state < WordAutomaton.STATES; state++) {
+                for (int c = 0; c < WordAutomaton.CLASSES; c++) {
+                    int target = automaton.next(state, c);
+                    if (target < 0) continue;
+                    int shift = c == WordAutomaton.VOWEL ? 1 : 0;
+                    for (int chosen = 0; chosen <= step; chosen++) {
+                        if (ways[state][chosen].signum() != 0) {
+                            next[target][chosen + shift] = next[target][chosen + shift].add(ways[state][chosen]);
+                        }
+                    }
+                }
+            }
+            ways = next;
+        }
+
+        BigInteger[] patterns = zeros(steps + 1);
+        for (int state = 0; state < WordAutomaton.STATES; state++) {
+            if (!automaton.accepts(state)) continue;
+            for (int chosen = 0; chosen <= steps; chosen++) {
+                if (automaton.balanced(chosen, state)) {
+                    patterns[chosen] = patterns[chosen].add(ways[state][chosen]);
+                }
+            }
+        }
+        return patterns;
+    }
+
+    static BigInteger[] zeros(int size) {
+        BigInteger[] array = new BigInteger[size];
+        Arrays.fill(array, BigInteger.ZERO);
+        return array;
+    }
+}
@@ -0,0 +1,231 @@
+package com.morro.cdsl.solver.words;
+
+import com.morro.cdsl.spec.WordsSpec;
+
+import java.math.BigInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Нумерация слов, удовлетворяющих условиям WORDS, в лексикографическом порядке букв алфавита.
+ * Таблица динамики хранит для каждой позиции, состояния автомата и числа уже выбранных гласных,
+ * сколькими способами слово можно дописать. По ней слово с номером i строится буква за буквой
+ * без перебора предыдущих, а номер слова считается обратным проходом. Сами слова не хранятся.
+ *
+ * У палиндрома нумеруется первая половина — вторая однозначно ей определяется,
+ * и порядок половин совпадает с порядком слов.
+ */
+public final class WordRanking {
+    private final Alphabet alphabet;
+    private final WordAutomaton automaton;
+    private final boolean unique;
+    // Число гласных нужно помнить только для условий на него и для UNIQUE YES
+    private final boolean tracksVowels;
+    // completions[pos][state][vowels] — сколькими способами дописать свободные позиции с pos
+    private final BigInteger[][][] completions;
+
+    public WordRanking(Alphabet alphabet, WordAutomaton automaton, boolean unique) {
+        this.alphabet = alphabet;
+        this.automaton = automaton;
+        this.unique = unique;
+        this.tracksVowels = unique || automaton.counts();
+        this.completions = completions();
+    }
+
+    public static WordRanking of(WordsSpec spec) {
+        return new WordRanking(Alphabet.of(spec.alphabet()), WordAutomaton.compile(spec.conditionMask(), spec.length()),
+                spec.unique());
+    }
+
+    public BigInteger count() {
+        return completions[0][WordAutomaton.START][0];
+    }
+
+    public String unrank(BigInteger rank) {
+        if (rank.signum() < 0 || rank.compareTo(count()) >= 0) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " of " + count());
+        }
+        return cursorAt(rank).word();
+    }
+
+    // Курсор на слове с номером rank; номер должен быть меньше count()
+    Cursor cursorAt(BigInteger rank) {
+        Cursor cursor = new Cursor();
+        BigInteger left = rank;
+        for (int pos = 0; pos < automaton.steps(); pos++) {
+            for (int letter = 0; letter < alphabet.size(); letter++) {
+                BigInteger ways = cursor.ways(pos, letter);
+                if (ways.signum() == 0) continue;
+                if (left.compareTo(ways) < 0) {
+                    cursor.set(pos, letter);
+                    break;
+                }
+                left = left.subtract(ways);
+            }
+        }
+        return cursor;
+    }
+
+    // Номер слова; IllegalArgumentException, если слово не подходит под условия
+    public BigInteger rank(String word) {
+        if (word.length() != automaton.length()) {
+            throw new IllegalArgumentException("Expected a word of length " + automaton.length() + ": " + word);
+        }
+        Cursor cursor = new Cursor();
+        BigInteger rank = BigInteger.ZERO;
+        for (int pos = 0; pos < automaton.steps(); pos++) {
+            int target = indexOf(Character.toUpperCase(word.charAt(pos)));
+            if (target < 0 || cursor.ways(pos, target).signum() == 0) {
+                throw new IllegalArgumentException("Word does not satisfy the conditions: " + word);
+            }
+            for (int letter = 0; letter < target; letter++) {
+                rank = rank.add(cursor.ways(pos, letter));
+            }
+            cursor.set(pos, target);
+        }
+        if (!cursor.word().equalsIgnoreCase(word)) {
+            throw new IllegalArgumentException("Word is not a palindrome: " + word);
+        }
+        return rank;
+    }
+
+    public WordSpliterator spliterator() {
+        return new WordSpliterator(this, BigInteger.ZERO, count());
+    }
+
+    public Stream<String> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // Слова с номерами [from, to)
+    public Stream<String> stream(BigInteger from, BigInteger to) {
+        BigInteger end = to.min(count());
+        return StreamSupport.stream(new WordSpliterator(this, from.min(end).max(BigInteger.ZERO), end), false);
+    }
+
+    private BigInteger[][][] completions() {
+        int steps = automaton.steps();
+        int width = tracksVowels ? steps + 1 : 1;
+        BigInteger[][][] table = new BigInteger[steps + 1][WordAutomaton.STATES][];
+        boolean impossible = unique && automaton.palindrome() && automaton.length() > 1;
+
+        for (int state = 0; state < WordAutomaton.STATES; state++) {
+            BigInteger[] row = WordCounter.zeros(width);
+            for (int vowels = 0; vowels < width; vowels++) {
+                if (!impossible && automaton.accepts(state) && automaton.balanced(vowels, state)) {
+                    row[vowels] = BigInteger.ONE;
+                }
+            }
+            table[steps][state] = row;
+        }
+
+        for (int pos = steps - 1; pos >= 0; pos--) {
+            for (int state = 0; state < WordAutomaton.STATES; state++) {
+                BigInteger[] row = WordCounter.zeros(width);
+                for (int vowels = 0; vowels < Math.min(width, pos + 1); vowels++) {
+                    BigInteger ways = BigInteger.ZERO;
+                    for (int c = 0; c < WordAutomaton.CLASSES; c++) {
+                        int target = automaton.next(state, c);
+                        long letters = available(c, pos, vowels);
+                        if (target < 0 || letters <= 0) continue;
+                        int after = tracksVowels && c == WordAutomaton.VOWEL ? vowels + 1 : vowels;
+                        BigInteger rest = table[pos + 1][target][after];
+                        if (rest.signum() != 0) {
+                            ways = ways.add(rest.multiply(BigInteger.valueOf(letters)));
+                        }
+                    }
+                    row[vowels] = ways;
+                }
+                table[pos][state] = row;
+            }
+        }
+        return table;
+    }
+
+    // Сколько букв класса можно поставить на позицию pos, если до неё выбрано vowels гласных
+    private long available(int letterClass, int pos, int vowels) {
+        int size = alphabet.classSize(letterClass);
+        if (!unique) return size;
+        int used = letterClass == WordAutomaton.VOWEL ? vowels : pos - vowels;
+        return size - used;
+    }
+
+    private int indexOf(char c) {
+        for (int i = 0; i < alphabet.size(); i++) {
+            if (alphabet.letter(i) == c) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Текущее слово: буквы свободных позиций, состояние автомата и число гласных перед
+     * каждой позицией. Переход к следующему слову меняет только хвост.
+     */
+    final class Cursor {
+        private final int[] letters = new int[automaton.steps()];
+        private final int[] states = new int[automaton.steps() + 1];
+        private final int[] vowels = new int[automaton.steps() + 1];
+        private final boolean[] used = new boolean[alphabet.size()];
+
+        Cursor() {
+            states[0] = WordAutomaton.START;
+        }
+
+        // Сколько слов начинается с текущего префикса длины pos и буквы letter
+        BigInteger ways(int pos, int letter) {
+            if (unique && used[letter]) return BigInteger.ZERO;
+            int c = alphabet.letterClass(letter);
+            int target = automaton.next(states[pos], c);
+            if (target < 0) return BigInteger.ZERO;
+            int after = tracksVowels && c == WordAutomaton.VOWEL ? vowels[pos] + 1 : vowels[pos];
+            return completions[pos + 1][target][after];
+        }
+
+        void set(int pos, int letter) {
+            int c = alphabet.letterClass(letter);
+            letters[pos] = letter;
+            used[letter] = true;
+            states[pos + 1] = automaton.next(states[pos], c);
+            vowels[pos + 1] = tracksVowels && c == WordAutomaton.VOWEL ? vowels[pos] + 1 : vowels[pos];
+        }
+
+        // Следующее слово в порядке нумерации; false — текущее было последним
+        boolean advance() {
+            for (int pos = letters.length - 1; pos >= 0; pos--) {
+                used[letters[pos]] = false;
+                for (int letter = letters[pos] + 1; letter < alphabet.size(); letter++) {
+                    if (ways(pos, letter).signum() != 0) {
+                        set(pos, letter);
+                        fillFirst(pos + 1);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Хвост с позиции from — наименьшим продолжением
+        private void fillFirst(int from) {
+            for (int pos = from; pos < letters.length; pos++) {
+                for (int letter = 0; letter < alphabet.size(); letter++) {
+                    if (ways(pos, letter).signum() != 0) {
+                        set(pos, letter);
+                        break;
+                    }
+                }
+            }
+        }
+
+        String word() {
+            int length = automaton.length();
+            char[] word = new char[length];
+            for (int pos = 0; pos < letters.length; pos++) {
+                word[pos] = alphabet.letter(letters[pos]);
+                if (automaton.palindrome()) {
+                    word[length - 1 - pos] = word[pos];
+                }
+            }
+            return new String(word);
+        }
+    }
+}
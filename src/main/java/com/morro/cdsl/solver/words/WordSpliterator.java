@@ -0,0 +1,64 @@
+package com.morro.cdsl.solver.words;
+
+import java.math.BigInteger;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Слова с номерами [next, end) по нумерации WordRanking. Первое слово строится по номеру,
+ * следующие — переходом курсора к следующему слову. Деление пополам по номерам,
+ * поэтому части равны при любых условиях и параллельный поток не копит слов в памяти.
+ */
+public final class WordSpliterator implements Spliterator<String> {
+    private final WordRanking ranking;
+    private BigInteger next;
+    private BigInteger end;
+    private WordRanking.Cursor cursor;
+
+    WordSpliterator(WordRanking ranking, BigInteger from, BigInteger end) {
+        this.ranking = ranking;
+        this.next = from;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (next.compareTo(end) >= 0) {
+            return false;
+        }
+        if (cursor == null) {
+            cursor = ranking.cursorAt(next);
+        } else {
+            cursor.advance();
+        }
+        next = next.add(BigInteger.ONE);
+        action.accept(cursor.word());
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        BigInteger half = end.subtract(next).shiftRight(1);
+        if (half.signum() == 0) {
+            return null;
+        }
+        // Префикс отдаётся новой части, курсор этой части строится заново с середины
+        WordSpliterator prefix = new WordSpliterator(ranking, next, next.add(half));
+        prefix.cursor = cursor;
+        next = next.add(half);
+        cursor = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        BigInteger size = end.subtract(next);
+        return size.bitLength() < Long.SIZE ? size.longValue() : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        int sized = end.bitLength() < Long.SIZE ? SIZED | SUBSIZED : 0;
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE | sized;
+    }
+}
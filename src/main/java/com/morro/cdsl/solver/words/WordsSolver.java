@@ -0,0 +1,53 @@
+package com.morro.cdsl.solver.words;
+
+import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.solver.ProblemSolver;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.WordsSpec;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Слова длины LENGTH над ALPHABET, удовлетворяющие всем условиям TARGET.
+ * COMBINATIONS — число таких слов, PROBABILITY — их доля среди всех слов той же длины
+ * (при UNIQUE YES — среди слов без повторяющихся букв).
+ */
+public final class WordsSolver implements ProblemSolver<WordsSpec> {
+
+    @Override
+    public ProblemType type() {
+        return ProblemType.WORDS;
+    }
+
+    @Override
+    public Class<WordsSpec> specType() {
+        return WordsSpec.class;
+    }
+
+    @Override
+    public boolean supports(WordsSpec spec, Calculation calculation) {
+        return (calculation == Calculation.PROBABILITY || calculation == Calculation.COMBINATIONS)
+                && spec.alphabet() != null && spec.length() >= 0;
+    }
+
+    @Override
+    public Fraction solve(WordsSpec spec, Calculation calculation, ForkJoinPool pool) {
+        Alphabet alphabet = Alphabet.of(spec.alphabet());
+        WordAutomaton automaton = WordAutomaton.compile(spec.conditionMask(), spec.length());
+        BigInteger count = spec.unique()
+                ? WordCounter.countUnique(automaton, alphabet)
+                : WordCounter.count(automaton, alphabet);
+        if (calculation == Calculation.COMBINATIONS) {
+            return Fraction.valueOf(count);
+        }
+        BigInteger total = spec.unique()
+                ? WordCounter.falling(alphabet.size(), spec.length())
+                : BigInteger.valueOf(alphabet.size()).pow(spec.length());
+        if (total.signum() == 0) {
+            throw new IllegalArgumentException("No words of length " + spec.length() + " over the alphabet");
+        }
+        return Fraction.of(count, total);
+    }
+}
@@ -0,0 +1,76 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public final class BallsSpec extends ProblemSpec {
+    // Цвета и число шаров каждого цвета — параллельные массивы в порядке объявления
+    private final String[] colors;
+    private final int[] counts;
+    // Сколько шаров каждого цвета должно оказаться среди вытянутых; -1 — цвет не ограничен
+    private final int[] wanted;
+    private final boolean sequential;
+    private final int drawCount;
+    private final int hash;
+
+    public BallsSpec(String name, Calculation calculation, String[] colors, int[] counts, int[] wanted,
+                     boolean sequential, int drawCount) {
+        super(name, calculation);
+        if (colors.length != counts.length || colors.length != wanted.length) {
+            throw new IllegalArgumentException("Colors, counts and targets differ in length: "
+                    + colors.length + ", " + counts.length + ", " + wanted.length);
+        }
+        this.colors = colors.clone();
+        this.counts = counts.clone();
+        this.wanted = wanted.clone();
+        this.sequential = sequential;
+        this.drawCount = drawCount;
+        this.hash = 31 * (31 * (31 * (31 * headerHash() + Objects.hash(sequential, drawCount))
+                + Arrays.hashCode(this.colors)) + Arrays.hashCode(this.counts)) + Arrays.hashCode(this.wanted);
+    }
+
+    @Override
+    public ProblemType type() { return ProblemType.BALLS_AND_URNS; }
+
+    public int colorCount() { return colors.length; }
+    public String color(int i) { return colors[i]; }
+    public int count(int i) { return counts[i]; }
+    public int wanted(int i) { return wanted[i]; }
+    public boolean sequential() { return sequential; }
+    public int drawCount() { return drawCount; }
+
+    public int totalBalls() {
+        int total = 0;
+        for (int count : counts) total += count;
+        return total;
+    }
+
+    @Override
+    String details() {
+        StringBuilder urn = new StringBuilder("{");
+        StringBuilder target = new StringBuilder("{");
+        for (int i = 0; i < colors.length; i++) {
+            urn.append(i > 0 ? ", " : "").append(colors[i]).append('=').append(counts[i]);
+            if (wanted[i] >= 0) {
+                target.append(target.length() > 1 ? ", " : "").append(colors[i]).append('=').append(wanted[i]);
+            }
+        }
+        return String.format(", Urn: %s, Draw: %s, Count: %d, Target: %s",
+                urn.append('}'), sequential ? "sequential" : "simultaneous", drawCount, target.append('}'));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof BallsSpec other && hash == other.hash && sameHeader(other)
+                && sequential == other.sequential && drawCount == other.drawCount
+                && Arrays.equals(colors, other.colors) && Arrays.equals(counts, other.counts)
+                && Arrays.equals(wanted, other.wanted);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,10 @@
+package com.morro.cdsl.spec;
+
+// Что требуется вычислить в задаче
+public enum Calculation {
+    PROBABILITY, COMBINATIONS, EXPECTATION,
+    // Число существенно различных вариантов: совпадающие при повороте или отражении доски считаются одним
+    DISTINCT_COMBINATIONS,
+    // Вероятность, оценённая моделированием, с доверительным интервалом — даже если есть точный решатель
+    SIMULATION
+}
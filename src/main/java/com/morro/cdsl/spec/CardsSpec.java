@@ -0,0 +1,127 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.Card;
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
+
+public final class CardsSpec extends ProblemSpec {
+    private final String deckType;
+    private final int deckSize;
+    private final int drawCount;
+    private final boolean withReplacement;
+    // Номера целевых карт (Card.index) в порядке объявления
+    private final int[] targets;
+    // TARGET AT_LEAST: в руке не меньше карт каждого ранга и каждой масти, чем среди целевых
+    private final boolean atLeast;
+    // Битовая маска HandCategory.mask(): рука должна оказаться одной из этих комбинаций
+    private final int categories;
+    private final int hash;
+
+    public CardsSpec(String name, Calculation calculation, String deckType, int deckSize,
+                     int drawCount, boolean withReplacement, int[] targets, boolean atLeast, int categories) {
+        super(name, calculation);
+        this.deckType = deckType;
+        this.deckSize = deckSize;
+        this.drawCount = drawCount;
+        this.withReplacement = withReplacement;
+        this.targets = targets.clone();
+        this.atLeast = atLeast;
+        this.categories = categories;
+        this.hash = 31 * (31 * headerHash() + Objects.hash(deckType, deckSize, drawCount, withReplacement, atLeast, categories))
+                + Arrays.hashCode(this.targets);
+    }
+
+    @Override
+    public ProblemType type() { return ProblemType.CARDS; }
+
+    public String deckType() { return deckType; }
+    public int deckSize() { return deckSize; }
+    public int drawCount() { return drawCount; }
+    public boolean withReplacement() { return withReplacement; }
+
+    public int targetCount() { return targets.length; }
+    public int target(int i) { return targets[i]; }
+    public int[] targets() { return targets.clone(); }
+    public boolean atLeast() { return atLeast; }
+
+    public int categoryMask() { return categories; }
+
+    public boolean has(HandCategory category) {
+        return (categories & category.mask()) != 0;
+    }
+
+    public EnumSet<HandCategory> categories() {
+        EnumSet<HandCategory> set = EnumSet.noneOf(HandCategory.class);
+        for (HandCategory category : HandCategory.VALUES) {
+            if (has(category)) set.add(category);
+        }
+        return set;
+    }
+
+    // Колода STANDARD или FRENCH из 4·r карт — старшие r рангов (36 карт — от шестёрки до туза).
+    // Состав прочих колод не известен, целевые карты считаются входящими в неё
+    public boolean inDeck(int card) {
+        return !isShortFrench() || card >= Card.DECK_SIZE - deckSize;
+    }
+
+    // Колода маской long по Card.index(). В колоду неизвестного состава попадают целевые карты,
+    // остальные места занимают свободные позиции с младших; колоды больше 64 карт так не задать
+    public long deckMask() {
+        if (deckSize < 0 || deckSize > Long.SIZE) {
+            throw new IllegalArgumentException("Deck of " + deckSize + " cards does not fit a bit mask");
+        }
+        if (isShortFrench()) {
+            return (1L << Card.DECK_SIZE) - (1L << (Card.DECK_SIZE - deckSize));
+        }
+
+        long mask = 0;
+        for (int target : targets) {
+            mask |= 1L << target;
+        }
+        if (Long.bitCount(mask) > deckSize) {
+            throw new IllegalArgumentException(Long.bitCount(mask) + " target cards in a deck of " + deckSize);
+        }
+        for (int position = 0; Long.bitCount(mask) < deckSize; position++) {
+            mask |= 1L << position;
+        }
+        return mask;
+    }
+
+    private boolean isShortFrench() {
+        return ("STANDARD".equals(deckType) || "FRENCH".equals(deckType))
+                && deckSize % Card.SUITS.length == 0 && deckSize >= 0 && deckSize <= Card.DECK_SIZE;
+    }
+
+    @Override
+    String details() {
+        String target = "None";
+        if (targets.length > 0) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < targets.length; i++) {
+                sb.append(i > 0 ? ", " : "").append(Card.fromIndex(targets[i]));
+            }
+            target = (atLeast ? "at least " : "") + sb.append("]");
+        }
+        if (categories != 0) {
+            target = (targets.length > 0 ? target + " " : "") + categories();
+        }
+        return String.format(", Deck: %s (%d cards), Draws: %d (%s), Target: %s",
+                deckType, deckSize, drawCount, withReplacement ? "with replacement" : "no replacement", target);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CardsSpec other && hash == other.hash && sameHeader(other)
+                && Objects.equals(deckType, other.deckType) && deckSize == other.deckSize
+                && drawCount == other.drawCount && withReplacement == other.withReplacement
+                && atLeast == other.atLeast && categories == other.categories && Arrays.equals(targets, other.targets);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
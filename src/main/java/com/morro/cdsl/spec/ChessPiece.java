@@ -0,0 +1,18 @@
+package com.morro.cdsl.spec;
+
+// Шахматные фигуры; в ChessSpec число фигур хранится массивом по ordinal()
+public enum ChessPiece {
+    KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN;
+
+    static final ChessPiece[] VALUES = values();
+
+    // null — неизвестное название фигуры
+    public static ChessPiece fromName(String name) {
+        for (ChessPiece piece : VALUES) {
+            if (piece.name().equalsIgnoreCase(name)) {
+                return piece;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public final class ChessSpec extends ProblemSpec {
+    private final int height;
+    private final int width;
+    // Число фигур по ChessPiece.ordinal()
+    private final int[] pieces;
+    private final boolean attacking;
+    private final int hash;
+
+    public ChessSpec(String name, Calculation calculation, int height, int width, int[] pieces, boolean attacking) {
+        super(name, calculation);
+        if (pieces.length != ChessPiece.VALUES.length) {
+            throw new IllegalArgumentException("Expected " + ChessPiece.VALUES.length + " piece counts, got " + pieces.length);
+        }
+        this.height = height;
+        this.width = width;
+        this.pieces = pieces.clone();
+        this.attacking = attacking;
+        this.hash = 31 * (31 * headerHash() + Objects.hash(height, width, attacking)) + Arrays.hashCode(this.pieces);
+    }
+
+    @Override
+    public ProblemType type() { return ProblemType.CHESS; }
+
+    public int height() { return height; }
+    public int width() { return width; }
+    public boolean attacking() { return attacking; }
+
+    public int count(ChessPiece piece) {
+        return pieces[piece.ordinal()];
+    }
+
+    public int totalPieces() {
+        int total = 0;
+        for (int count : pieces) total += count;
+        return total;
+    }
+
+    @Override
+    String details() {
+        StringBuilder sb = new StringBuilder("{");
+        for (ChessPiece piece : ChessPiece.VALUES) {
+            if (count(piece) > 0) {
+                sb.append(sb.length() > 1 ? ", " : "").append(piece).append('=').append(count(piece));
+            }
+        }
+        return String.format(", Board: %dx%d, Pieces: %s, Condition: %s",
+                height, width, sb.append('}'), attacking ? "attacking" : "non-attacking");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ChessSpec other && hash == other.hash && sameHeader(other)
+                && height == other.height && width == other.width && attacking == other.attacking
+                && Arrays.equals(pieces, other.pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
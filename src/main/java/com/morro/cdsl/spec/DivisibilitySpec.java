@@ -0,0 +1,56 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.List;
+import java.util.Objects;
+
+public final class DivisibilitySpec extends ProblemSpec {
+
+    public enum Condition {
+        INCREASES_BY_FACTOR, DECREASES_BY_FACTOR, UNCHANGED, INCREASES_BY, DECREASES_BY
+    }
+
+    private final int numberLength;
+    private final List<String> transformations;
+    private final Condition condition;
+    // 0 — множитель не задан
+    private final int factor;
+    private final int hash;
+
+    public DivisibilitySpec(String name, Calculation calculation, int numberLength, List<String> transformations,
+                            Condition condition, int factor) {
+        super(name, calculation);
+        this.numberLength = numberLength;
+        this.transformations = List.copyOf(transformations);
+        this.condition = condition;
+        this.factor = factor;
+        this.hash = 31 * headerHash() + Objects.hash(numberLength, this.transformations, condition, factor);
+    }
+
+    @Override
+    public ProblemType type() { return ProblemType.DIVISIBILITY; }
+
+    public int numberLength() { return numberLength; }
+    public List<String> transformations() { return transformations; }
+    public Condition condition() { return condition; }
+    public int factor() { return factor; }
+
+    @Override
+    String details() {
+        String text = condition == null ? null : factor != 0 ? condition + " " + factor : condition.toString();
+        return String.format(", Number Length: %d, Transformations: %s, Condition: %s", numberLength, transformations, text);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof DivisibilitySpec other && hash == other.hash && sameHeader(other)
+                && numberLength == other.numberLength && transformations.equals(other.transformations)
+                && condition == other.condition && factor == other.factor;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
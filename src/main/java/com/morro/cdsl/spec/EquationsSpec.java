@@ -0,0 +1,56 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+public final class EquationsSpec extends ProblemSpec {
+    private final int unknowns;
+    private final int[] coefficients;
+    private final int sum;
+    private final String domain;
+    private final List<String> constraints;
+    private final int hash;
+
+    public EquationsSpec(String name, Calculation calculation, int unknowns, int[] coefficients, int sum,
+                         String domain, List<String> constraints) {
+        super(name, calculation);
+        this.unknowns = unknowns;
+        this.coefficients = coefficients.clone();
+        this.sum = sum;
+        this.domain = domain;
+        this.constraints = List.copyOf(constraints);
+        this.hash = 31 * (31 * headerHash() + Objects.hash(unknowns, sum, domain, this.constraints))
+                + Arrays.hashCode(this.coefficients);
+    }
+
+    @Override
+    public ProblemType type() { return ProblemType.EQUATIONS; }
+
+    public int unknowns() { return unknowns; }
+    public int coefficientCount() { return coefficients.length; }
+    public int coefficient(int i) { return coefficients[i]; }
+    public int sum() { return sum; }
+    public String domain() { return domain; }
+    public List<String> constraints() { return constraints; }
+
+    @Override
+    String details() {
+        return String.format(", Unknowns: %d, Coefficients: %s, Sum: %d, Domain: %s, Constraints: %s",
+                unknowns, Arrays.toString(coefficients), sum, domain, constraints);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof EquationsSpec other && hash == other.hash && sameHeader(other)
+                && unknowns == other.unknowns && sum == other.sum && Objects.equals(domain, other.domain)
+                && constraints.equals(other.constraints) && Arrays.equals(coefficients, other.coefficients);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
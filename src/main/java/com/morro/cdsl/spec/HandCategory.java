@@ -0,0 +1,26 @@
+package com.morro.cdsl.spec;
+
+// Покерные комбинации по старшинству; в CardsSpec хранятся битовой маской по ordinal().
+// Комбинации не пересекаются: ROYAL_FLUSH не входит в STRAIGHT_FLUSH
+public enum HandCategory {
+    HIGH_CARD,
+    ONE_PAIR,
+    TWO_PAIR,
+    THREE_OF_A_KIND,
+    STRAIGHT,
+    FLUSH,
+    FULL_HOUSE,
+    FOUR_OF_A_KIND,
+    STRAIGHT_FLUSH,
+    ROYAL_FLUSH;
+
+    static final HandCategory[] VALUES = values();
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public static HandCategory of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
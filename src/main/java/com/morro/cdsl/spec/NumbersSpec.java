@@ -0,0 +1,55 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.Objects;
+
+public final class NumbersSpec extends ProblemSpec {
+
+    public enum Order {
+        INCREASING, NON_DECREASING, DECREASING, NON_INCREASING
+    }
+
+    private final int digits;
+    private final boolean distinct;
+    private final boolean adjacentDifferent;
+    // null — порядок цифр не задан
+    private final Order order;
+    private final int hash;
+
+    public NumbersSpec(String name, Calculation calculation, int digits, boolean distinct,
+                       boolean adjacentDifferent, Order order) {
+        super(name, calculation);
+        this.digits = digits;
+        this.distinct = distinct;
+        this.adjacentDifferent = adjacentDifferent;
+        this.order = order;
+        this.hash = 31 * headerHash() + Objects.hash(digits, distinct, adjacentDifferent, order);
+    }
+
+    @Override
+    public ProblemType type() { return ProblemType.NUMBERS; }
+
+    public int digits() { return digits; }
+    public boolean distinct() { return distinct; }
+    public boolean adjacentDifferent() { return adjacentDifferent; }
+    public Order order() { return order; }
+
+    @Override
+    String details() {
+        return String.format(", Digits: %d, Distinct: %s, Adjacent Different: %s, Order: %s",
+                digits, distinct ? "yes" : "no", adjacentDifferent ? "yes" : "no", order);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof NumbersSpec other && hash == other.hash && sameHeader(other)
+                && digits == other.digits && distinct == other.distinct
+                && adjacentDifferent == other.adjacentDifferent && order == other.order;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
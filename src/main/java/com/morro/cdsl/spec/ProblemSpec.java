@@ -0,0 +1,48 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.Objects;
+
+/**
+ * Неизменяемое описание одной задачи. На каждый тип задачи свой класс только с нужными
+ * ему полями; коллекции хранятся массивами, хэш вычисляется один раз в конструкторе.
+ * Спецификации можно свободно разделять между потоками и использовать как ключи.
+ */
+public sealed abstract class ProblemSpec
+        permits CardsSpec, WordsSpec, ChessSpec, RemaindersSpec, DivisibilitySpec,
+        BallsSpec, EquationsSpec, NumbersSpec, UntypedSpec {
+    private final String name;
+    private final Calculation calculation;
+
+    ProblemSpec(String name, Calculation calculation) {
+        this.name = name;
+        this.calculation = calculation;
+    }
+
+    // null — в программе нет распознанного TASK
+    public abstract ProblemType type();
+
+    public String name() { return name; }
+    public Calculation calculation() { return calculation; }
+
+    // Часть описания, своя для каждого типа задачи
+    abstract String details();
+
+    int headerHash() {
+        return Objects.hash(type(), name, calculation);
+    }
+
+    boolean sameHeader(ProblemSpec other) {
+        return Objects.equals(name, other.name) && calculation == other.calculation;
+    }
+
+    @Override
+    public final String toString() {
+        ProblemType type = type();
+        return String.format("Task: %s '%s'", type != null ? type.getDisplayName() : "Unknown",
+                name != null ? name : "Unnamed")
+                + details()
+                + String.format(", Calculate: %s", calculation != null ? calculation : "Unknown");
+    }
+}
@@ -0,0 +1,43 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.Objects;
+
+public final class RemaindersSpec extends ProblemSpec {
+    private final String dividend;
+    private final int divisor;
+    private final int remainder;
+    private final int hash;
+
+    public RemaindersSpec(String name, Calculation calculation, String dividend, int divisor, int remainder) {
+        super(name, calculation);
+        this.dividend = dividend;
+        this.divisor = divisor;
+        this.remainder = remainder;
+        this.hash = 31 * headerHash() + Objects.hash(dividend, divisor, remainder);
+    }
+
+    @Override
+    public ProblemType type() { return ProblemType.REMAINDERS; }
+
+    public String dividend() { return dividend; }
+    public int divisor() { return divisor; }
+    public int remainder() { return remainder; }
+
+    @Override
+    String details() {
+        return String.format(", Dividend: %s, Divisor: %d, Remainder: %d", dividend, divisor, remainder);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof RemaindersSpec other && hash == other.hash && sameHeader(other)
+                && Objects.equals(dividend, other.dividend) && divisor == other.divisor && remainder == other.remainder;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,31 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+// Объявления без TASK: известны только имя и цель вычисления
+public final class UntypedSpec extends ProblemSpec {
+    private final int hash;
+
+    public UntypedSpec(String name, Calculation calculation) {
+        super(name, calculation);
+        this.hash = headerHash();
+    }
+
+    @Override
+    public ProblemType type() { return null; }
+
+    @Override
+    String details() {
+        return "";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof UntypedSpec other && hash == other.hash && sameHeader(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
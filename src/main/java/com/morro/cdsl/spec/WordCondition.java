@@ -0,0 +1,16 @@
+package com.morro.cdsl.spec;
+
+// Условия на слова; в WordsSpec хранятся битовой маской по ordinal()
+public enum WordCondition {
+    PALINDROME,
+    ALTERNATING,
+    CONSONANT_FOLLOWED_BY_VOWEL,
+    VOWEL_FOLLOWED_BY_CONSONANT,
+    MORE_VOWELS_THAN_CONSONANTS,
+    MORE_CONSONANTS_THAN_VOWELS,
+    EQUAL_VOWELS_CONSONANTS;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
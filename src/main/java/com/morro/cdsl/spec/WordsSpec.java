@@ -0,0 +1,62 @@
+package com.morro.cdsl.spec;
+
+import com.morro.cdsl.model.ProblemType;
+
+import java.util.EnumSet;
+import java.util.Objects;
+
+public final class WordsSpec extends ProblemSpec {
+    private final String alphabet;
+    private final int length;
+    private final boolean unique;
+    // Битовая маска WordCondition.mask()
+    private final int conditions;
+    private final int hash;
+
+    public WordsSpec(String name, Calculation calculation, String alphabet, int length, boolean unique, int conditions) {
+        super(name, calculation);
+        this.alphabet = alphabet;
+        this.length = length;
+        this.unique = unique;
+        this.conditions = conditions;
+        this.hash = 31 * headerHash() + Objects.hash(alphabet, length, unique, conditions);
+    }
+
+    @Override
+    public ProblemType type() { return ProblemType.WORDS; }
+
+    public String alphabet() { return alphabet; }
+    public int length() { return length; }
+    public boolean unique() { return unique; }
+    public int conditionMask() { return conditions; }
+
+    public boolean has(WordCondition condition) {
+        return (conditions & condition.mask()) != 0;
+    }
+
+    public EnumSet<WordCondition> conditions() {
+        EnumSet<WordCondition> set = EnumSet.noneOf(WordCondition.class);
+        for (WordCondition condition : WordCondition.values()) {
+            if (has(condition)) set.add(condition);
+        }
+        return set;
+    }
+
+    @Override
+    String details() {
+        return String.format(", Alphabet: %s, Length: %d, Unique: %s, Conditions: %s",
+                alphabet, length, unique ? "yes" : "no", conditions());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof WordsSpec other && hash == other.hash && sameHeader(other)
+                && Objects.equals(alphabet, other.alphabet) && length == other.length
+                && unique == other.unique && conditions == other.conditions;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
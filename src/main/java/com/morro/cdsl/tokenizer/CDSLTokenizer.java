@@ -1,227 +1,203 @@
 package com.morro.cdsl.tokenizer;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.regex.*;
 
 public class CDSLTokenizer {
 
+    // Таблица ключевых слов строится один раз из TokenType
+    private static final KeywordTrie KEYWORDS = KeywordTrie.fromTokenTypes();
+
+    // Приёмник токенов: значение не вычисляется, передаётся только положение в исходном тексте
+    interface TokenSink {
+        void add(TokenType type, int offset, int length, int line, int column);
+    }
+
     public static List<Token> tokenize(String input) {
         List<Token> tokens = new ArrayList<>();
-        if (input == null || input.trim().isEmpty()) {
+        if (isBlank(input)) {
             return tokens;
         }
 
-        String[] lines = input.split("\n");
-        int lineNumber = 1;
-
-        for (String line : lines) {
-            tokens.addAll(tokenizeLine(line.trim(), lineNumber));
-            lineNumber++;
-        }
-
+        int lastLine = tokenizeLines(input, 0, input.length(), 1, listSink(input, tokens));
         if (!tokens.isEmpty()) {
-            tokens.add(new Token(TokenType.EOF, "", lineNumber, 1));
+            tokens.add(new Token(TokenType.EOF, "", lastLine + 1, 1));
         }
         return tokens;
     }
 
-    private static List<Token> tokenizeLine(String line, int lineNumber) {
+    // Фрагмент [start, end) входа, начинающийся с начала строки firstLine; без завершающего EOF
+    public static List<Token> tokenize(CharSequence input, int start, int end, int firstLine) {
+        List<Token> tokens = new ArrayList<>();
+        tokenizeLines(input, start, end, firstLine, listSink(input, tokens));
+        return tokens;
+    }
+
+    // Одна строка без завершающего EOF — для инкрементальной перетокенизации
+    public static List<Token> tokenizeLine(CharSequence line, int lineNumber) {
         List<Token> tokens = new ArrayList<>();
-        if (line.isEmpty()) return tokens;
+        tokenizeLine(line, 0, line.length(), lineNumber, listSink(line, tokens));
+        return tokens;
+    }
+
+    // Компактный вариант: токены хранятся в параллельных массивах, значения — срезы input
+    public static TokenBuffer tokenizeToBuffer(CharSequence input) {
+        TokenBuffer buffer = new TokenBuffer(input != null ? input : "");
+        if (!isBlank(input)) {
+            int lastLine = tokenizeLines(input, 0, input.length(), 1, buffer::add);
+            if (buffer.size() > 0) {
+                buffer.add(TokenType.EOF, input.length(), 0, lastLine + 1, 1);
+            }
+        }
+        return buffer;
+    }
+
+    // Потоковые варианты: токены выдаются по одной строке, память не растёт с размером входа
+    public static TokenStream stream(Reader reader) {
+        return new TokenStream(reader);
+    }
+
+    public static TokenStream stream(Path path) throws IOException {
+        return new TokenStream(new MappedFileReader(FileChannel.open(path, StandardOpenOption.READ), true));
+    }
+
+    public static TokenStream stream(FileChannel channel) throws IOException {
+        return new TokenStream(new MappedFileReader(channel, false));
+    }
+
+    // Возвращает номер последней непустой строки (0, если таких нет) — по нему ставится EOF
+    private static int tokenizeLines(CharSequence input, int start, int end, int firstLine, TokenSink sink) {
+        int lineStart = start;
+        int lineNumber = firstLine;
+        // Пустой хвост не учитывается, как у String.split
+        int lastLine = 0;
+
+        while (lineStart <= end) {
+            int lineEnd = indexOf(input, '\n', lineStart, end);
+            if (lineEnd == -1) {
+                lineEnd = end;
+            }
+            if (lineEnd > lineStart) {
+                lastLine = lineNumber;
+            }
+
+            tokenizeLine(input, lineStart, lineEnd, lineNumber, sink);
+            lineStart = lineEnd + 1;
+            lineNumber++;
+        }
+
+        return lastLine;
+    }
 
-        String upperLine = line.toUpperCase();
-        int pos = 0;
-        int column = 1;
+    private static TokenSink listSink(CharSequence input, List<Token> tokens) {
+        return (type, offset, length, line, column) ->
+                tokens.add(new Token(type, value(input, type, offset, length), line, column));
+    }
+
+    static void tokenizeLine(CharSequence input, int start, int end, int lineNumber, TokenSink sink) {
+        // Колонки считаются от первого непробельного символа строки
+        while (start < end && input.charAt(start) <= ' ') start++;
+        while (end > start && input.charAt(end - 1) <= ' ') end--;
 
-        while (pos < upperLine.length()) {
-            boolean matched = false;
+        int pos = start;
+        while (pos < end) {
+            char c = input.charAt(pos);
+            int column = pos - start + 1;
 
             // Пропускаем пробелы
-            if (Character.isWhitespace(upperLine.charAt(pos))) {
+            if (Character.isWhitespace(c)) {
                 pos++;
-                column++;
                 continue;
             }
 
             // Сначала проверяем строки в кавычках
-            if (upperLine.charAt(pos) == '"') {
-                int endQuote = upperLine.indexOf('"', pos + 1);
+            if (c == '"') {
+                int endQuote = indexOf(input, '"', pos + 1, end);
                 if (endQuote != -1) {
-                    String stringValue = upperLine.substring(pos, endQuote + 1);
-                    tokens.add(new Token(TokenType.STRING, stringValue, lineNumber, column));
+                    sink.add(TokenType.STRING, pos, endQuote + 1 - pos, lineNumber, column);
                     pos = endQuote + 1;
-                    column += stringValue.length();
-                    matched = true;
                     continue;
                 }
             }
 
             // Затем проверяем числа
-            if (Character.isDigit(upperLine.charAt(pos))) {
-                int start = pos;
-                while (pos < upperLine.length() && Character.isDigit(upperLine.charAt(pos))) {
+            if (Character.isDigit(c)) {
+                int numberStart = pos;
+                while (pos < end && Character.isDigit(input.charAt(pos))) {
                     pos++;
                 }
-                String number = upperLine.substring(start, pos);
-                tokens.add(new Token(TokenType.INTEGER, number, lineNumber, column));
-                column += number.length();
-                matched = true;
+                sink.add(TokenType.INTEGER, numberStart, pos - numberStart, lineNumber, column);
                 continue;
             }
 
-            // Сначала проверяем многословные токены (более длинные шаблоны)
-            List<TokenType> orderedTokenTypes = getOrderedTokenTypes();
-
-            for (TokenType tokenType : orderedTokenTypes) {
-                if (tokenType == TokenType.UNKNOWN || tokenType == TokenType.STRING || tokenType == TokenType.INTEGER) {
-                    continue;
-                }
-
-                Pattern pattern = Pattern.compile("^" + tokenType.getPattern());
-                Matcher matcher = pattern.matcher(upperLine.substring(pos));
-
-                if (matcher.find()) {
-                    String value = matcher.group();
-                    // Проверяем, что это отдельное слово
-                    if (isWholeWord(value, upperLine, pos)) {
-                        tokens.add(new Token(tokenType, value, lineNumber, column));
-                        pos += value.length();
-                        column += value.length();
-                        matched = true;
-                        break;
-                    }
-                }
+            // Ключевые слова, псевдонимы, символы и операторы: самое длинное целое слово
+            int state = KEYWORDS.match(input, pos, start, end);
+            if (state != -1) {
+                int length = KEYWORDS.lexeme(state).length();
+                sink.add(KEYWORDS.type(state), pos, length, lineNumber, column);
+                pos += length;
+                continue;
             }
 
-            if (!matched) {
-                // Проверяем отдельные символы и короткие токены
-                matched = checkSingleCharacters(upperLine, pos, tokens, lineNumber, column);
-                if (matched) {
-                    pos++;
-                    column++;
-                    continue;
-                }
-
-                // Неизвестный токен
-                int start = pos;
-                while (pos < upperLine.length() && !Character.isWhitespace(upperLine.charAt(pos)) &&
-                        upperLine.charAt(pos) != '[' && upperLine.charAt(pos) != ']' &&
-                        upperLine.charAt(pos) != ',' && upperLine.charAt(pos) != '(' &&
-                        upperLine.charAt(pos) != ')') {
-                    pos++;
-                }
-                if (start < pos) {
-                    String unknown = upperLine.substring(start, pos);
-                    tokens.add(new Token(TokenType.UNKNOWN, unknown, lineNumber, column));
-                    column += unknown.length();
-                } else {
-                    // Если не нашли неизвестный токен, продвигаемся на один символ
-                    String unknown = String.valueOf(upperLine.charAt(pos));
-                    tokens.add(new Token(TokenType.UNKNOWN, unknown, lineNumber, column));
-                    pos++;
-                    column++;
-                }
-            }
+            // Неизвестный токен
+            int unknownStart = pos;
+            do {
+                pos++;
+            } while (pos < end && !isUnknownTerminator(input.charAt(pos)));
+            sink.add(TokenType.UNKNOWN, unknownStart, pos - unknownStart, lineNumber, column);
         }
-
-        return tokens;
     }
 
-    private static List<TokenType> getOrderedTokenTypes() {
-        // Сначала проверяем более длинные и специфичные токены, затем общие
-        return Arrays.asList(
-                // Длинные условия для слов
-                TokenType.EQUAL_VOWELS_CONSONANTS,
-                TokenType.CONSONANT_FOLLOWED_BY_VOWEL,
-                TokenType.VOWEL_FOLLOWED_BY_CONSONANT,
-                TokenType.MORE_VOWELS_THAN_CONSONANTS,
-                TokenType.MORE_CONSONANTS_THAN_VOWELS,
-                TokenType.ALTERNATING,
-                TokenType.ALLOW_DUPLICATES,
-
-                // Общие условия
-                TokenType.PALINDROME,
-
-                // Параметры задач
-                TokenType.ALPHABET, TokenType.LENGTH, TokenType.UNIQUE, TokenType.SET,
-
-                // Ключевые слова
-                TokenType.TASK, TokenType.DECK, TokenType.TARGET, TokenType.DRAW,
-                TokenType.CONDITION, TokenType.CALCULATE,
-
-                // Типы задач
-                TokenType.CARDS, TokenType.WORDS, TokenType.NUMBERS, TokenType.EQUATIONS,
-                TokenType.BALLS, TokenType.DIVISIBILITY, TokenType.REMAINDERS, TokenType.CHESS,
-
-                // Типы колод
-                TokenType.STANDARD, TokenType.FRENCH, TokenType.SPANISH, TokenType.CUSTOM,
-
-                // Замена
-                TokenType.REPLACEMENT, TokenType.NO_REPLACEMENT,
-
-                // Вероятности
-                TokenType.PROBABILITY, TokenType.COMBINATIONS, TokenType.EXPECTATION,
-
-                // Достоинства карт
-                TokenType.ACE, TokenType.KING, TokenType.QUEEN, TokenType.JACK,
-                TokenType.RANK,
-
-                // Масти
-                TokenType.HEARTS, TokenType.DIAMONDS, TokenType.CLUBS, TokenType.SPADES,
-
-                // Логические операторы
-                TokenType.AND, TokenType.OR, TokenType.NOT,
-
-                // Операторы сравнения
-                TokenType.EQUALS, TokenType.NOT_EQUALS, TokenType.GREATER, TokenType.LESS,
-                TokenType.GREATER_EQUAL, TokenType.LESS_EQUAL,
-
-                // Булевы значения
-                TokenType.BOOLEAN
-        );
-    }
-
-    private static boolean checkSingleCharacters(String line, int pos, List<Token> tokens, int lineNumber, int column) {
-        char c = line.charAt(pos);
-        switch (c) {
-            case '[':
-                tokens.add(new Token(TokenType.LBRACKET, "[", lineNumber, column));
-                return true;
-            case ']':
-                tokens.add(new Token(TokenType.RBRACKET, "]", lineNumber, column));
-                return true;
-            case '(':
-                tokens.add(new Token(TokenType.LPAREN, "(", lineNumber, column));
-                return true;
-            case ')':
-                tokens.add(new Token(TokenType.RPAREN, ")", lineNumber, column));
-                return true;
-            case ',':
-                tokens.add(new Token(TokenType.COMMA, ",", lineNumber, column));
-                return true;
-            default:
-                return false;
+    // Значение токена так, как его видит Token: ключевые слова — общие строки из таблицы
+    static String value(CharSequence input, TokenType type, int offset, int length) {
+        if (type == TokenType.EOF) {
+            return "";
         }
-    }
-
-    private static boolean isWholeWord(String value, String line, int pos) {
-        // Проверяем, что перед токеном нет буквенно-цифровых символов или подчеркивания
-        if (pos > 0) {
-            char prevChar = line.charAt(pos - 1);
-            if (Character.isLetterOrDigit(prevChar) || prevChar == '_') {
-                return false;
+        if (type != TokenType.STRING && type != TokenType.INTEGER && type != TokenType.UNKNOWN) {
+            int state = KEYWORDS.lookup(input, offset, length);
+            if (state != -1) {
+                return KEYWORDS.lexeme(state);
             }
         }
+        return input.subSequence(offset, offset + length).toString().toUpperCase();
+    }
 
-        // Проверяем, что после токена нет буквенно-цифровых символов или подчеркивания
-        int endPos = pos + value.length();
-        if (endPos < line.length()) {
-            char nextChar = line.charAt(endPos);
-            if (Character.isLetterOrDigit(nextChar) || nextChar == '_') {
-                return false;
+    // Десятичное число из [start, end) без промежуточной строки; -1 — не число или не помещается в int
+    static int parseInt(CharSequence input, int start, int end) {
+        if (start >= end) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(input.charAt(i), 10);
+            result = result * 10 + digit;
+            if (digit < 0 || result > Integer.MAX_VALUE) {
+                return -1;
             }
         }
+        return (int) result;
+    }
+
+    private static boolean isUnknownTerminator(char c) {
+        return Character.isWhitespace(c) || c == '[' || c == ']' || c == ',' || c == '(' || c == ')';
+    }
 
+    private static boolean isBlank(CharSequence input) {
+        if (input == null) return true;
+        for (int i = 0; i < input.length(); i++) {
+            if (input.charAt(i) > ' ') return false;
+        }
         return true;
     }
-}
\ No newline at end of file
+
+    private static int indexOf(CharSequence input, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (input.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,148 @@
+package com.morro.cdsl.tokenizer;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Префиксное дерево (DFA) по всем ключевым словам и псевдонимам из {@link TokenType}.
+ * Строится один раз; поиск идёт без выделения памяти и возвращает номер
+ * принимающего состояния для самого длинного совпадения, являющегося целым словом.
+ */
+final class KeywordTrie {
+    private static final int WIDTH = 128;
+
+    // Эти типы распознаются отдельными сканерами токенизатора, а не таблицей
+    private static final Set<TokenType> SCANNED_TYPES = EnumSet.of(
+            TokenType.INTEGER, TokenType.STRING, TokenType.RANK, TokenType.EOF, TokenType.UNKNOWN);
+
+    private final int[] transitions;
+    private final TokenType[] types;
+    private final String[] lexemes;
+    private final boolean[] words;
+
+    private KeywordTrie(int[] transitions, TokenType[] types, String[] lexemes, boolean[] words) {
+        this.transitions = transitions;
+        this.types = types;
+        this.lexemes = lexemes;
+        this.words = words;
+    }
+
+    static KeywordTrie fromTokenTypes() {
+        Builder builder = new Builder();
+        for (TokenType type : TokenType.values()) {
+            if (SCANNED_TYPES.contains(type)) {
+                continue;
+            }
+            for (String alternative : type.getPattern().split("\\|")) {
+                builder.add(unescape(alternative), type);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Ищет ключевое слово, начинающееся с позиции {@code pos} строки {@code [lineStart, lineEnd)}.
+     *
+     * @return принимающее состояние или -1, если ключевое слово не найдено
+     */
+    int match(CharSequence line, int pos, int lineStart, int lineEnd) {
+        boolean afterWord = pos > lineStart && isWordChar(line.charAt(pos - 1));
+        int state = 0;
+        int best = -1;
+
+        for (int i = pos; i < lineEnd; i++) {
+            char c = Character.toUpperCase(line.charAt(i));
+            if (c >= WIDTH) break;
+            state = transitions[state * WIDTH + c];
+            if (state == 0) break;
+
+            if (types[state] != null) {
+                // Слова должны стоять отдельно, операторы — нет
+                boolean whole = !words[state] ||
+                        (!afterWord && (i + 1 >= lineEnd || !isWordChar(line.charAt(i + 1))));
+                if (whole) {
+                    best = state;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    // Точный поиск уже выделенного токена: состояние для всего среза или -1
+    int lookup(CharSequence text, int offset, int length) {
+        int state = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = Character.toUpperCase(text.charAt(i));
+            if (c >= WIDTH) return -1;
+            state = transitions[state * WIDTH + c];
+            if (state == 0) return -1;
+        }
+        return types[state] != null ? state : -1;
+    }
+
+    TokenType type(int state) {
+        return types[state];
+    }
+
+    String lexeme(int state) {
+        return lexemes[state];
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static String unescape(String alternative) {
+        return alternative.replace("\\", "");
+    }
+
+    private static final class Builder {
+        private int[] transitions = new int[64 * WIDTH];
+        private TokenType[] types = new TokenType[64];
+        private String[] lexemes = new String[64];
+        private boolean[] words = new boolean[64];
+        private int size = 1;
+
+        void add(String keyword, TokenType type) {
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (c >= WIDTH) {
+                    throw new IllegalStateException("Non-ASCII keyword: " + keyword);
+                }
+                int next = transitions[state * WIDTH + c];
+                if (next == 0) {
+                    next = newState();
+                    transitions[state * WIDTH + c] = next;
+                }
+                state = next;
+            }
+
+            if (types[state] != null && types[state] != type) {
+                throw new IllegalStateException("Keyword " + keyword + " is claimed by both " +
+                        types[state] + " and " + type);
+            }
+            types[state] = type;
+            lexemes[state] = keyword;
+            words[state] = isWordChar(keyword.charAt(0));
+        }
+
+        private int newState() {
+            if (size == types.length) {
+                int capacity = size * 2;
+                transitions = Arrays.copyOf(transitions, capacity * WIDTH);
+                types = Arrays.copyOf(types, capacity);
+                lexemes = Arrays.copyOf(lexemes, capacity);
+                words = Arrays.copyOf(words, capacity);
+            }
+            return size++;
+        }
+
+        KeywordTrie build() {
+            return new KeywordTrie(Arrays.copyOf(transitions, size * WIDTH),
+                    Arrays.copyOf(types, size), Arrays.copyOf(lexemes, size), Arrays.copyOf(words, size));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.morro.cdsl.tokenizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Читает UTF-8 файл через отображение в память окнами фиксированного размера,
+ * так что файл любого размера декодируется без чтения целиком в кучу.
+ */
+final class MappedFileReader extends Reader {
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_BYTES_PER_CHAR = 4;
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final long size;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(8192).flip();
+
+    private MappedByteBuffer window;
+    private long windowEnd;
+    private boolean finished;
+
+    MappedFileReader(FileChannel channel, boolean ownsChannel) throws IOException {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.size = channel.size();
+        this.windowEnd = channel.position();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!chars.hasRemaining() && !fill()) {
+            return -1;
+        }
+        int count = Math.min(len, chars.remaining());
+        chars.get(cbuf, off, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        chars.clear();
+        try {
+            while (chars.position() == 0 && !finished) {
+                boolean last = windowEnd == size;
+
+                // Незавершённая последовательность на краю окна — перемапливаем с её начала
+                if (window == null || (!last && window.remaining() < MAX_BYTES_PER_CHAR)) {
+                    long start = window == null ? windowEnd : windowEnd - window.remaining();
+                    long length = Math.min(WINDOW_SIZE, size - start);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                    windowEnd = start + length;
+                    continue;
+                }
+
+                decoder.decode(window, chars, last);
+                if (last && !window.hasRemaining()) {
+                    decoder.flush(chars);
+                    finished = true;
+                }
+            }
+        } finally {
+            chars.flip();
+        }
+        return chars.hasRemaining();
+    }
+}
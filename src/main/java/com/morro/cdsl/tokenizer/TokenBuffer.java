@@ -0,0 +1,118 @@
+package com.morro.cdsl.tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * Компактное хранилище токенов: параллельные массивы int для типа, смещения, длины,
+ * строки и колонки. Значения не хранятся — они читаются срезами исходного текста
+ * только по запросу, поэтому на токен приходится лишь амортизированный рост массивов.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final CharSequence source;
+    private int[] types = new int[64];
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private int[] lines = new int[64];
+    private int[] columns = new int[64];
+    private int size;
+
+    TokenBuffer(CharSequence source) {
+        this.source = source;
+    }
+
+    void add(TokenType type, int offset, int length, int line, int column) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        types[size] = type.ordinal();
+        offsets[size] = offset;
+        lengths[size] = length;
+        lines[size] = line;
+        columns[size] = column;
+        size++;
+    }
+
+    public int size() { return size; }
+    public CharSequence getSource() { return source; }
+
+    public TokenType type(int index) { return TYPES[types[index]]; }
+    public int offset(int index) { return offsets[index]; }
+    public int length(int index) { return lengths[index]; }
+    public int line(int index) { return lines[index]; }
+    public int column(int index) { return columns[index]; }
+
+    // Исходный текст токена без приведения регистра
+    public CharSequence slice(int index) {
+        return source.subSequence(offsets[index], offsets[index] + lengths[index]);
+    }
+
+    // Значение в том же виде, что Token.getValue()
+    public String value(int index) {
+        return CDSLTokenizer.value(source, type(index), offsets[index], lengths[index]);
+    }
+
+    // Число читается прямо из исходного текста, без промежуточной строки
+    public int intValue(int index) {
+        int value = CDSLTokenizer.parseInt(source, offsets[index], offsets[index] + lengths[index]);
+        if (value < 0) {
+            throw new NumberFormatException("For input string: \"" + slice(index) + "\"");
+        }
+        return value;
+    }
+
+    public Token token(int index) {
+        return new Token(type(index), value(index), lines[index], columns[index]);
+    }
+
+    public TokenCursor cursor() {
+        return new Cursor();
+    }
+
+    private final class Cursor implements TokenCursor {
+        private int index;
+
+        @Override
+        public TokenType type(int offset) {
+            int i = index + offset;
+            return i >= 0 && i < size ? TokenBuffer.this.type(i) : TokenType.EOF;
+        }
+
+        @Override
+        public String value(int offset) {
+            int i = index + offset;
+            return i >= 0 && i < size ? TokenBuffer.this.value(i) : "";
+        }
+
+        @Override
+        public int line(int offset) {
+            int i = index + offset;
+            return i >= 0 && i < size ? lines[i] : 0;
+        }
+
+        @Override
+        public int column(int offset) {
+            int i = index + offset;
+            return i >= 0 && i < size ? columns[i] : 1;
+        }
+
+        @Override
+        public int intValue(int offset) {
+            int i = index + offset;
+            return i >= 0 && i < size ? CDSLTokenizer.parseInt(source, offsets[i], offsets[i] + lengths[i]) : -1;
+        }
+
+        @Override
+        public void advance() {
+            if (type(0) != TokenType.EOF) {
+                index++;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.morro.cdsl.tokenizer;
+
+import java.util.Iterator;
+
+/**
+ * Курсор по токенам для парсера. Смещение: -1 — предыдущий токен, 0 — текущий, 1 — следующий.
+ * За пределами входа курсор отдаёт EOF.
+ */
+public interface TokenCursor {
+    TokenType type(int offset);
+
+    String value(int offset);
+
+    int line(int offset);
+
+    int column(int offset);
+
+    // Значение токена INTEGER; -1, если это не число или оно не помещается в int
+    default int intValue(int offset) {
+        String value = value(offset);
+        return CDSLTokenizer.parseInt(value, 0, value.length());
+    }
+
+    void advance();
+
+    static TokenCursor over(Iterator<Token> tokens) {
+        return new TokenWindow(tokens);
+    }
+}
@@ -0,0 +1,120 @@
+package com.morro.cdsl.tokenizer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Ленивый поток токенов поверх {@link Reader}. Вход читается построчно в переиспользуемый
+ * буфер, поэтому память ограничена длиной самой длинной строки, а не размером входа.
+ * Выдаёт ту же последовательность токенов, что и {@link CDSLTokenizer#tokenize(String)}.
+ */
+public class TokenStream implements Iterator<Token>, Closeable {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int bufferPos;
+    private int bufferLength;
+    private boolean endOfInput;
+
+    private final StringBuilder line = new StringBuilder();
+    private final List<Token> lineTokens = new ArrayList<>();
+    private int lineTokenIndex;
+    private int lineNumber;
+    private int lastLine;
+
+    private boolean producedTokens;
+    private boolean eofProduced;
+
+    TokenStream(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (lineTokenIndex == lineTokens.size()) {
+            if (!fillLineTokens()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Token next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return lineTokens.get(lineTokenIndex++);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean fillLineTokens() {
+        lineTokens.clear();
+        lineTokenIndex = 0;
+
+        if (readLine()) {
+            CDSLTokenizer.tokenizeLine(line, 0, line.length(), lineNumber, (type, offset, length, number, column) ->
+                    lineTokens.add(new Token(type, CDSLTokenizer.value(line, type, offset, length), number, column)));
+            producedTokens |= !lineTokens.isEmpty();
+            return true;
+        }
+
+        // EOF добавляется только после непустого входа, как в tokenize(String)
+        if (producedTokens && !eofProduced) {
+            eofProduced = true;
+            lineTokens.add(new Token(TokenType.EOF, "", lastLine + 1, 1));
+            return true;
+        }
+        return false;
+    }
+
+    private boolean readLine() {
+        if (endOfInput) {
+            return false;
+        }
+        line.setLength(0);
+
+        try {
+            while (true) {
+                if (bufferPos == bufferLength) {
+                    bufferPos = 0;
+                    bufferLength = reader.read(buffer);
+                    if (bufferLength == -1) {
+                        bufferLength = 0;
+                        endOfInput = true;
+                        return finishLine();
+                    }
+                }
+
+                for (int i = bufferPos; i < bufferLength; i++) {
+                    if (buffer[i] == '\n') {
+                        line.append(buffer, bufferPos, i - bufferPos);
+                        bufferPos = i + 1;
+                        return finishLine();
+                    }
+                }
+                line.append(buffer, bufferPos, bufferLength - bufferPos);
+                bufferPos = bufferLength;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean finishLine() {
+        lineNumber++;
+        if (line.length() > 0) {
+            lastLine = lineNumber;
+        }
+        return true;
+    }
+}
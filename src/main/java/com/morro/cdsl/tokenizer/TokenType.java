@@ -46,8 +46,8 @@ public enum TokenType {
     // Шары и урны
     URN("URN"),
     CONTENTS("CONTENTS"),
-    DRAW_SEQUENTIAL("SEQUENTIAL"),
-    DRAW_SIMULTANEOUS("SIMULTANEOUS"),
+    DRAW_SEQUENTIAL("SEQUENTIAL|DRAW_SEQUENTIAL"),
+    DRAW_SIMULTANEOUS("SIMULTANEOUS|DRAW_SIMULTANEOUS"),
 
     // Уравнения
     UNKNOWNS("UNKNOWNS"),
@@ -75,11 +75,16 @@ public enum TokenType {
     // Типы колод
     STANDARD("STANDARD"), FRENCH("FRENCH"), SPANISH("SPANISH"), CUSTOM("CUSTOM"),
 
+    // Цель по профилю руки: не меньше карт каждого ранга и масти, чем в списке
+    AT_LEAST("AT_LEAST"),
+
     // Замена
     REPLACEMENT("REPLACEMENT"), NO_REPLACEMENT("NO_REPLACEMENT"),
 
     // Вероятности
     PROBABILITY("PROBABILITY"), COMBINATIONS("COMBINATIONS"), EXPECTATION("EXPECTATION"),
+    DISTINCT_COMBINATIONS("DISTINCT_COMBINATIONS|COMBINATIONS_UP_TO_SYMMETRY"),
+    SIMULATION("SIMULATION|MONTE_CARLO"),
 
     // Достоинства карт
     ACE("ACE|A"), KING("KING|K"), QUEEN("QUEEN|Q"), JACK("JACK|J"),
@@ -88,6 +93,18 @@ public enum TokenType {
     // Масти
     HEARTS("HEARTS|H"), DIAMONDS("DIAMONDS|D"), CLUBS("CLUBS|C"), SPADES("SPADES|S"),
 
+    // Покерные комбинации
+    HIGH_CARD("HIGH_CARD"),
+    ONE_PAIR("ONE_PAIR|PAIR"),
+    TWO_PAIR("TWO_PAIR|TWO_PAIRS"),
+    THREE_OF_A_KIND("THREE_OF_A_KIND|TRIPS"),
+    STRAIGHT("STRAIGHT"),
+    FLUSH("FLUSH"),
+    FULL_HOUSE("FULL_HOUSE"),
+    FOUR_OF_A_KIND("FOUR_OF_A_KIND|QUADS"),
+    STRAIGHT_FLUSH("STRAIGHT_FLUSH"),
+    ROYAL_FLUSH("ROYAL_FLUSH"),
+
     // Символы
     LBRACKET("\\["), RBRACKET("\\]"), LPAREN("\\("), RPAREN("\\)"),
     COMMA(","),
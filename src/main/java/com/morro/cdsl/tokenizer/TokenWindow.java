@@ -0,0 +1,68 @@
+package com.morro.cdsl.tokenizer;
+
+import java.util.Iterator;
+
+// Курсор над итератором токенов: держит только предыдущий, текущий и следующий токены
+final class TokenWindow implements TokenCursor {
+    private final Iterator<Token> tokens;
+    private Token previous;
+    private Token current;
+    private Token next;
+
+    TokenWindow(Iterator<Token> tokens) {
+        this.tokens = tokens;
+        this.current = pull();
+        this.next = pull();
+    }
+
+    @Override
+    public TokenType type(int offset) {
+        Token token = at(offset);
+        return token != null ? token.getType() : TokenType.EOF;
+    }
+
+    @Override
+    public String value(int offset) {
+        Token token = at(offset);
+        return token != null ? token.getValue() : "";
+    }
+
+    @Override
+    public int line(int offset) {
+        Token token = at(offset);
+        return token != null ? token.getLine() : 0;
+    }
+
+    @Override
+    public int column(int offset) {
+        Token token = at(offset);
+        return token != null ? token.getColumn() : 1;
+    }
+
+    @Override
+    public void advance() {
+        if (current.getType() != TokenType.EOF) {
+            previous = current;
+            current = next;
+            next = pull();
+        }
+    }
+
+    private Token at(int offset) {
+        return switch (offset) {
+            case -1 -> previous;
+            case 0 -> current;
+            case 1 -> next;
+            default -> throw new IllegalArgumentException("Lookahead out of window: " + offset);
+        };
+    }
+
+    private Token pull() {
+        if (tokens.hasNext()) {
+            return tokens.next();
+        }
+        // Поток без завершающего EOF (или пустой) закрываем синтетическим EOF
+        int line = current != null ? current.getLine() + 1 : 1;
+        return new Token(TokenType.EOF, "", line, 1);
+    }
+}
@@ -7,6 +7,7 @@ import java.awt.event.ActionListener;
 public class ControlPanel extends JPanel {
     private JButton generateTokensButton;
     private JButton generateImageButton;
+    private JLabel solutionLabel;
 
     public ControlPanel() {
         initializeUI();
@@ -22,6 +23,12 @@ public class ControlPanel extends JPanel {
         add(generateTokensButton);
         add(Box.createHorizontalStrut(10));
         add(generateImageButton);
+
+        // Ответ решателя для задачи под курсором
+        solutionLabel = new JLabel(" ");
+        solutionLabel.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        add(Box.createHorizontalStrut(20));
+        add(solutionLabel);
     }
 
     private JButton createStyledButton(String text, Color color) {
@@ -35,6 +42,10 @@ public class ControlPanel extends JPanel {
         return button;
     }
 
+    public void showSolution(String text) {
+        solutionLabel.setText(text);
+    }
+
     public void setGenerateTokensListener(ActionListener listener) {
         generateTokensButton.addActionListener(listener);
     }
@@ -1,7 +1,8 @@
 package com.morro.ui;
 
-import com.morro.cdsl.interpreter.ProblemContext;
 import com.morro.cdsl.model.ProblemType;
+import com.morro.cdsl.spec.CardsSpec;
+import com.morro.cdsl.spec.ProblemSpec;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,7 +14,7 @@ public class ImageDisplayPanel extends JPanel {
     private JLabel imageLabel;
     private JButton deleteButton;
     private JButton regenerateButton;
-    private ProblemContext problemContext;
+    private ProblemSpec problemSpec;
     private BufferedImage currentImage;
 
     public ImageDisplayPanel() {
@@ -94,7 +95,7 @@ public class ImageDisplayPanel extends JPanel {
     }
 
     public void generateImage() {
-        if (problemContext != null) {
+        if (problemSpec != null) {
             // Здесь будет вызов вашего сервиса генерации изображений
             // Пока создаем заглушку
             currentImage = createPlaceholderImage();
@@ -103,7 +104,7 @@ public class ImageDisplayPanel extends JPanel {
     }
 
     public void regenerateImage() {
-        if (problemContext != null) {
+        if (problemSpec != null) {
             generateImage();
         }
     }
@@ -144,9 +145,8 @@ public class ImageDisplayPanel extends JPanel {
         g2d.setColor(Color.DARK_GRAY);
         g2d.setFont(new Font("SansSerif", Font.BOLD, 16));
 
-        // Исправленная строка - используем getProblemType() вместо getTaskType()
-        String taskType = problemContext.getProblemType() != null ?
-                problemContext.getProblemType().getDisplayName() : "Unknown";
+        String taskType = problemSpec.type() != null ?
+                problemSpec.type().getDisplayName() : "Unknown";
         String text = "Generated Image for: " + taskType;
 
         FontMetrics fm = g2d.getFontMetrics();
@@ -155,8 +155,9 @@ public class ImageDisplayPanel extends JPanel {
 
         // Дополнительная информация
         g2d.setFont(new Font("SansSerif", Font.PLAIN, 12));
-        String info = String.format("Deck: %s (%d cards)",
-                problemContext.getDeckType(), problemContext.getDeckSize());
+        String info = problemSpec instanceof CardsSpec cards
+                ? String.format("Deck: %s (%d cards)", cards.deckType(), cards.deckSize())
+                : String.valueOf(problemSpec.name());
         int infoWidth = fm.stringWidth(info);
         g2d.drawString(info, (width - infoWidth) / 2, height / 2 + 20);
 
@@ -165,12 +166,12 @@ public class ImageDisplayPanel extends JPanel {
     }
 
     // Геттеры и сеттеры
-    public void setProblemContext(ProblemContext context) {
-        this.problemContext = context;
+    public void setProblemSpec(ProblemSpec spec) {
+        this.problemSpec = spec;
     }
 
-    public ProblemContext getProblemContext() {
-        return problemContext;
+    public ProblemSpec getProblemSpec() {
+        return problemSpec;
     }
 
     public void setDeleteImageListener(ActionListener listener) {
@@ -1,21 +1,22 @@
 package com.morro.ui;
 
-import com.morro.cdsl.interpreter.ProblemContext;
-import com.morro.cdsl.interpreter.ProblemInterpreter;
-import com.morro.cdsl.parser.ASTNode;
-import com.morro.cdsl.parser.CDSLParser;
-import com.morro.cdsl.tokenizer.CDSLTokenizer;
-import com.morro.cdsl.tokenizer.Token;
+import com.morro.cdsl.compiler.IncrementalCompiler;
+import com.morro.cdsl.parser.Program;
+import com.morro.cdsl.solver.Solution;
+import com.morro.cdsl.solver.SolverEngine;
+import com.morro.cdsl.spec.ProblemSpec;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class MainFrame extends JFrame {
     private TextInputPanel textInputPanel;
     private TokensPanel tokensPanel;
     private ControlPanel controlPanel;
     private ImageDisplayPanel imageDisplayPanel;
+    // Последний запущенный расчёт; ответы более ранних отбрасываются
+    private CompletableFuture<Solution> pendingSolution;
 
     public MainFrame() {
         initializeUI();
@@ -84,26 +85,20 @@ public class MainFrame extends JFrame {
         controlPanel.setGenerateImageListener(e -> generateImage());
         imageDisplayPanel.setDeleteImageListener(e -> deleteImage());
         imageDisplayPanel.setRegenerateImageListener(e -> regenerateImage());
+        textInputPanel.setChangeListener(this::refreshTokens);
     }
 
     private void generateTokens() {
         try {
-            String input = textInputPanel.getText();
-            List<Token> tokens = CDSLTokenizer.tokenize(input);
-            tokensPanel.displayTokens(tokens);
-
-            // Парсим и интерпретируем
-            CDSLParser parser = new CDSLParser(tokens);
-            ASTNode ast = parser.parse();
-            ProblemContext context = ProblemInterpreter.interpret(ast);
-
-            // Сохраняем контекст для генерации изображения
-            imageDisplayPanel.setProblemContext(context);
+            IncrementalCompiler compiler = refresh();
 
             // Показываем AST в консоли для отладки
+            Program program = compiler.program();
             System.out.println("Generated AST:");
-            System.out.println(ast);
-            System.out.println("Problem Context: " + context);
+            System.out.println(program);
+            ProblemSpec spec = imageDisplayPanel.getProblemSpec();
+            System.out.println("Problem Spec: " + spec);
+            solve(spec);
 
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this,
@@ -114,9 +109,50 @@ public class MainFrame extends JFrame {
         }
     }
 
+    // Решение идёт в пуле движка, окно не блокируется; устаревшие ответы не показываются
+    private void solve(ProblemSpec spec) {
+        SolverEngine engine = SolverEngine.shared();
+        if (spec == null || !engine.canSolve(spec)) {
+            pendingSolution = null;
+            controlPanel.showSolution(spec == null ? " " : "No solver for this task");
+            return;
+        }
+        controlPanel.showSolution("Solving...");
+        CompletableFuture<Solution> future = engine.solveAsync(spec);
+        pendingSolution = future;
+        future.whenComplete((solution, error) -> SwingUtilities.invokeLater(() -> {
+            if (pendingSolution != future) {
+                return;
+            }
+            pendingSolution = null;
+            controlPanel.showSolution(error != null
+                    ? "Solver error: " + (error.getCause() != null ? error.getCause() : error).getMessage()
+                    : solution.toString());
+        }));
+    }
+
+    // Обновление после правки: без диалогов и отладочного вывода, сбой виден в строке решения
+    private void refreshTokens() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            controlPanel.showSolution("Error: " + ex.getMessage());
+        }
+    }
+
+    private IncrementalCompiler refresh() {
+        // Перетокенизируются только изменённые строки, разбираются только изменённые блоки TASK
+        IncrementalCompiler compiler = textInputPanel.compile();
+        tokensPanel.displayTokens(compiler.tokens());
+        tokensPanel.displayDiagnostics(compiler.diagnostics());
+
+        // Сохраняем спецификацию задачи под курсором для генерации изображения
+        imageDisplayPanel.setProblemSpec(compiler.specAt(textInputPanel.getCaretLine()));
+        return compiler;
+    }
+
     private void generateImage() {
-        ProblemContext context = imageDisplayPanel.getProblemContext();
-        if (context != null) {
+        if (imageDisplayPanel.getProblemSpec() != null) {
             imageDisplayPanel.generateImage();
         } else {
             JOptionPane.showMessageDialog(this,
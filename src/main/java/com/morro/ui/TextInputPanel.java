@@ -1,12 +1,26 @@
 package com.morro.ui;
 
+import com.morro.cdsl.compiler.IncrementalCompiler;
+
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
 import java.awt.*;
 
 public class TextInputPanel extends JPanel {
     private JTextArea textArea;
     private JScrollPane scrollPane;
 
+    // Инкрементальный режим: слушатель документа отмечает изменённые строки
+    private final IncrementalCompiler compiler = new IncrementalCompiler();
+    private final Segment segment = new Segment();
+    private Runnable changeListener;
+    private boolean updateScheduled;
+
     public TextInputPanel() {
         initializeUI();
     }
@@ -88,6 +102,69 @@ public class TextInputPanel extends JPanel {
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
 
         add(scrollPane, BorderLayout.CENTER);
+
+        Document document = textArea.getDocument();
+        compiler.linesReplaced(0, 0, document.getDefaultRootElement().getElementCount());
+        document.addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                trackDirtyLines(e);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                trackDirtyLines(e);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Изменение атрибутов не затрагивает текст
+            }
+        });
+    }
+
+    private void trackDirtyLines(DocumentEvent e) {
+        Element root = e.getDocument().getDefaultRootElement();
+        DocumentEvent.ElementChange change = e.getChange(root);
+        if (change != null) {
+            compiler.linesReplaced(change.getIndex(),
+                    change.getChildrenRemoved().length, change.getChildrenAdded().length);
+        } else {
+            compiler.lineChanged(root.getElementIndex(e.getOffset()));
+        }
+
+        // Несколько событий подряд (например, setText) обрабатываем одним обновлением
+        if (!updateScheduled && changeListener != null) {
+            updateScheduled = true;
+            SwingUtilities.invokeLater(() -> {
+                updateScheduled = false;
+                changeListener.run();
+            });
+        }
+    }
+
+    // Перекомпилирует только изменённые строки и блоки TASK
+    public IncrementalCompiler compile() {
+        Document document = textArea.getDocument();
+        Element root = document.getDefaultRootElement();
+        compiler.update(index -> {
+            Element line = root.getElement(index);
+            try {
+                document.getText(line.getStartOffset(), line.getEndOffset() - line.getStartOffset(), segment);
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e);
+            }
+            return segment;
+        });
+        return compiler;
+    }
+
+    public int getCaretLine() {
+        return textArea.getDocument().getDefaultRootElement().getElementIndex(textArea.getCaretPosition());
+    }
+
+    public void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
     }
 
     public String getText() {
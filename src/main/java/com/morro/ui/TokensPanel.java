@@ -1,16 +1,19 @@
 package com.morro.ui;
 
+import com.morro.cdsl.parser.Diagnostic;
 import com.morro.cdsl.tokenizer.Token;
+import com.morro.cdsl.tokenizer.TokenBuffer;
 import com.morro.cdsl.tokenizer.TokenType;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.util.List;
 
 public class TokensPanel extends JPanel {
     private JTable tokensTable;
-    private DefaultTableModel tableModel;
+    private TokensTableModel tableModel;
+    private JLabel diagnosticsLabel;
 
     public TokensPanel() {
         initializeUI();
@@ -20,8 +23,7 @@ public class TokensPanel extends JPanel {
         setLayout(new BorderLayout());
 
         // Создаем таблицу для отображения токенов
-        String[] columnNames = {"Type", "Value", "Line", "Column"};
-        tableModel = new DefaultTableModel(columnNames, 0);
+        tableModel = new TokensTableModel();
         tokensTable = new JTable(tableModel);
 
         tokensTable.setFont(new Font("Monospaced", Font.PLAIN, 12));
@@ -33,26 +35,101 @@ public class TokensPanel extends JPanel {
 
         JScrollPane scrollPane = new JScrollPane(tokensTable);
         add(scrollPane, BorderLayout.CENTER);
+
+        // Сообщения парсера: первое в строке, все — во всплывающей подсказке
+        diagnosticsLabel = new JLabel(" ");
+        diagnosticsLabel.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        add(diagnosticsLabel, BorderLayout.SOUTH);
     }
 
     public void displayTokens(List<Token> tokens) {
-        // Очищаем таблицу
-        tableModel.setRowCount(0);
-
-        // Добавляем токены
-        for (Token token : tokens) {
-            if (token.getType() != TokenType.EOF) {
-                tableModel.addRow(new Object[]{
-                        token.getType().toString(),
-                        token.getValue(),
-                        token.getLine(),
-                        token.getColumn()
-                });
-            }
+        tableModel.setTokens(tokens);
+    }
+
+    // Строки читаются из буфера только при отрисовке, объекты Token не создаются
+    public void displayTokens(TokenBuffer tokens) {
+        tableModel.setTokens(tokens);
+    }
+
+    public void displayDiagnostics(List<Diagnostic> diagnostics) {
+        if (diagnostics.isEmpty()) {
+            diagnosticsLabel.setText(" ");
+            diagnosticsLabel.setToolTipText(null);
+            return;
         }
+        String first = diagnostics.get(0).toString();
+        diagnosticsLabel.setText(diagnostics.size() == 1 ? first : first + " (+" + (diagnostics.size() - 1) + " more)");
+        diagnosticsLabel.setForeground(diagnostics.get(0).severity() == Diagnostic.Severity.ERROR
+                ? Color.RED.darker() : Color.ORANGE.darker());
+
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (Diagnostic diagnostic : diagnostics) {
+            tooltip.append(diagnostic.toString().replace("&", "&amp;").replace("<", "&lt;")).append("<br>");
+        }
+        diagnosticsLabel.setToolTipText(tooltip.append("</html>").toString());
     }
 
     public void clearTokens() {
-        tableModel.setRowCount(0);
+        tableModel.setTokens((TokenBuffer) null);
+    }
+
+    private static class TokensTableModel extends AbstractTableModel {
+        private static final String[] COLUMN_NAMES = {"Type", "Value", "Line", "Column"};
+
+        private List<Token> tokens;
+        private TokenBuffer buffer;
+        private int rowCount;
+
+        void setTokens(List<Token> tokens) {
+            this.tokens = tokens;
+            this.buffer = null;
+            // EOF в таблице не показываем
+            int size = tokens != null ? tokens.size() : 0;
+            rowCount = size > 0 && tokens.get(size - 1).getType() == TokenType.EOF ? size - 1 : size;
+            fireTableDataChanged();
+        }
+
+        void setTokens(TokenBuffer buffer) {
+            this.buffer = buffer;
+            this.tokens = null;
+            int size = buffer != null ? buffer.size() : 0;
+            rowCount = size > 0 && buffer.type(size - 1) == TokenType.EOF ? size - 1 : size;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMN_NAMES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMN_NAMES[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            if (buffer != null) {
+                return switch (column) {
+                    case 0 -> buffer.type(row).toString();
+                    case 1 -> buffer.value(row);
+                    case 2 -> buffer.line(row);
+                    default -> buffer.column(row);
+                };
+            }
+
+            Token token = tokens.get(row);
+            return switch (column) {
+                case 0 -> token.getType().toString();
+                case 1 -> token.getValue();
+                case 2 -> token.getLine();
+                default -> token.getColumn();
+            };
+        }
     }
-}
\ No newline at end of file
+}
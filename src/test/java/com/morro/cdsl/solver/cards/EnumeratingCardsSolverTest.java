@@ -0,0 +1,77 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.CardsSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Перебор рук — эталон для формул CardsSolver
+class EnumeratingCardsSolverTest {
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
+    private static final String[] DECKS = {"STANDARD", "FRENCH", "SPANISH", "CUSTOM"};
+    private static final Calculation[] CALCULATIONS = {
+            Calculation.PROBABILITY, Calculation.COMBINATIONS, Calculation.EXPECTATION};
+
+    @Test
+    void agreesWithClosedFormOnRandomDecks() {
+        CardsSolver closed = new CardsSolver();
+        EnumeratingCardsSolver enumerator = new EnumeratingCardsSolver();
+        Random random = new Random(3);
+        int checked = 0;
+        while (checked < 300) {
+            String type = DECKS[random.nextInt(DECKS.length)];
+            boolean french = type.equals("STANDARD") || type.equals("FRENCH");
+            int deck = french ? 4 * (1 + random.nextInt(13)) : 1 + random.nextInt(64);
+            int draws = random.nextInt(Math.min(deck, 4) + 1);
+            int[] targets = new int[random.nextInt(Math.min(4, deck) + 1)];
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = random.nextInt(52);
+            }
+            CardsSpec spec = new CardsSpec("random", null, type, deck, draws, false, targets, false, 0);
+            if (!fitsMask(spec)) {
+                continue;
+            }
+            for (Calculation calculation : CALCULATIONS) {
+                assertTrue(closed.supports(spec, calculation) && enumerator.supports(spec, calculation), spec::toString);
+                Fraction expected = closed.solve(spec, calculation, POOL);
+                assertEquals(expected, enumerator.solve(spec, calculation, POOL), spec + " " + calculation);
+            }
+            checked++;
+        }
+    }
+
+    @Test
+    void countsAllFiveCardHands() {
+        long deck = (1L << 52) - 1;
+        assertEquals(2_598_960L, HandEnumerator.count(deck, 5, hand -> true, POOL));
+        // Тузы — старшие четыре позиции: рук ровно с i тузами C(4, i) · C(48, 5 - i)
+        long aces = 0xFL << 48;
+        assertArrayEquals(new long[]{1_712_304, 778_320, 103_776, 4_512, 48},
+                HandEnumerator.hits(deck, 5, aces, POOL));
+    }
+
+    @Test
+    void unranksInGosperOrder() {
+        long combination = HandEnumerator.unrank(0, 3);
+        for (long rank = 0; rank < 1000; rank++) {
+            assertEquals(combination, HandEnumerator.unrank(rank, 3), "rank " + rank);
+            combination = HandEnumerator.next(combination);
+        }
+    }
+
+    private static boolean fitsMask(CardsSpec spec) {
+        try {
+            spec.deckMask();
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
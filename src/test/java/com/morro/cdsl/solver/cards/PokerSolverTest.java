@@ -0,0 +1,60 @@
+package com.morro.cdsl.solver.cards;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+// Счёт комбинаций по профилям против перебора рук с HandEvaluator
+class PokerSolverTest {
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
+    private static final long FULL_DECK = (1L << 52) - 1;
+    private static final int CATEGORIES = 10;
+
+    // Порядок HandCategory: от старшей карты до роял-флеша
+    @Test
+    void countsFiveCardHands() {
+        assertArrayEquals(new long[]{1_302_540, 1_098_240, 123_552, 54_912, 10_200, 5_108, 3_744, 624, 36, 4},
+                PokerSolver.categoryCounts(FULL_DECK, 5));
+    }
+
+    @Test
+    void countsSevenCardHands() {
+        assertArrayEquals(new long[]{23_294_460, 58_627_800, 31_433_400, 6_461_620, 6_180_020, 4_047_644,
+                        3_473_184, 224_848, 37_260, 4_324},
+                PokerSolver.categoryCounts(FULL_DECK, 7));
+    }
+
+    @Test
+    void fiveCardCountsMatchEvaluator() {
+        assertArrayEquals(enumerate(FULL_DECK, 5), PokerSolver.categoryCounts(FULL_DECK, 5));
+    }
+
+    @Test
+    void agreesWithEvaluatorOnSmallDecks() {
+        Random random = new Random(9);
+        for (int i = 0; i < 60; i++) {
+            long deck;
+            if (i % 3 == 0) {
+                // Короткая колода: старшие ранги
+                deck = FULL_DECK & -(1L << (52 - 4 * (2 + random.nextInt(6))));
+            } else {
+                deck = 0;
+                int size = 8 + random.nextInt(20);
+                while (Long.bitCount(deck) < size) {
+                    deck |= 1L << random.nextInt(52);
+                }
+            }
+            int hand = random.nextInt(Math.min(PokerSolver.MAX_DRAW, Long.bitCount(deck)) + 1);
+            long cards = deck;
+            assertArrayEquals(enumerate(deck, hand), PokerSolver.categoryCounts(deck, hand),
+                    () -> Long.toHexString(cards) + ", " + hand + " cards");
+        }
+    }
+
+    private static long[] enumerate(long deck, int hand) {
+        return HandEnumerator.tally(deck, hand, CATEGORIES, cards -> HandEvaluator.evaluate(cards).ordinal(), POOL);
+    }
+}
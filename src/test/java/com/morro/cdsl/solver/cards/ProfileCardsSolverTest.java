@@ -0,0 +1,86 @@
+package com.morro.cdsl.solver.cards;
+
+import com.morro.cdsl.model.Card;
+import com.morro.cdsl.solver.Fraction;
+import com.morro.cdsl.spec.Calculation;
+import com.morro.cdsl.spec.CardsSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Динамика по профилям против перебора рук с тем же требованием к рангам и мастям
+class ProfileCardsSolverTest {
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
+    private static final int SUITS = Card.SUITS.length;
+    private static final int RANKS = Long.SIZE / SUITS;
+
+    @Test
+    void agreesWithEnumerationOnRandomDecks() {
+        ProfileCardsSolver solver = new ProfileCardsSolver();
+        Random random = new Random(5);
+        int checked = 0;
+        while (checked < 200) {
+            boolean custom = random.nextBoolean();
+            int deck = custom ? 1 + random.nextInt(64) : 4 * (1 + random.nextInt(13));
+            int draws = random.nextInt(Math.min(deck, 5) + 1);
+            int[] targets = new int[random.nextInt(5)];
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = random.nextInt(52);
+            }
+            CardsSpec spec = new CardsSpec("random", null, custom ? "CUSTOM" : "STANDARD", deck, draws, false,
+                    targets, true, 0);
+            long deckMask;
+            try {
+                deckMask = spec.deckMask();
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            assertTrue(solver.supports(spec, Calculation.COMBINATIONS), spec::toString);
+            long expected = HandEnumerator.count(deckMask, draws, hand -> covers(hand, targets), POOL);
+            assertEquals(Fraction.valueOf(expected), solver.solve(spec, Calculation.COMBINATIONS, POOL), spec::toString);
+            checked++;
+        }
+    }
+
+    @Test
+    void acceptsOnlyAtLeastTargets() {
+        int[] aces = {Card.DECK_SIZE - 1, Card.DECK_SIZE - 2};
+        CardsSpec exact = new CardsSpec("exact", null, "STANDARD", 52, 13, false, aces, false, 0);
+        CardsSpec atLeast = new CardsSpec("at least", null, "STANDARD", 52, 13, false, aces, true, 0);
+        assertFalse(new ProfileCardsSolver().supports(exact, Calculation.PROBABILITY));
+        assertTrue(new ProfileCardsSolver().supports(atLeast, Calculation.PROBABILITY));
+        assertFalse(new CardsSolver().supports(atLeast, Calculation.PROBABILITY));
+    }
+
+    // В руке карт каждого ранга и каждой масти не меньше, чем среди целевых (повторы целей не считаются)
+    private static boolean covers(long hand, int[] targets) {
+        long wanted = 0;
+        for (int target : targets) {
+            wanted |= 1L << target;
+        }
+        int[] ranks = new int[RANKS];
+        int[] suits = new int[SUITS];
+        for (long rest = wanted; rest != 0; rest &= rest - 1) {
+            int card = Long.numberOfTrailingZeros(rest);
+            ranks[card / SUITS]--;
+            suits[card % SUITS]--;
+        }
+        for (long rest = hand; rest != 0; rest &= rest - 1) {
+            int card = Long.numberOfTrailingZeros(rest);
+            ranks[card / SUITS]++;
+            suits[card % SUITS]++;
+        }
+        for (int rank : ranks) {
+            if (rank < 0) return false;
+        }
+        for (int suit : suits) {
+            if (suit < 0) return false;
+        }
+        return true;
+    }
+}